@@ -31,6 +31,8 @@ import com.jcwhatever.nucleus.managed.messaging.IMessenger;
 import com.jcwhatever.pvs.api.arena.IArenaPlayer;
 import com.jcwhatever.pvs.api.arena.extensions.IExtensionTypeManager;
 import com.jcwhatever.pvs.api.arena.managers.IArenaManager;
+import com.jcwhatever.pvs.api.arena.region.ChunkStore;
+import com.jcwhatever.pvs.api.arena.region.RestoreCoordinator;
 import com.jcwhatever.pvs.api.commands.ICommandHelper;
 import com.jcwhatever.pvs.api.modules.IModuleInfo;
 import com.jcwhatever.pvs.api.modules.PVStarModule;
@@ -97,6 +99,16 @@ public interface IPVStar extends Plugin  {
      */
     ICommandHelper getCommandHelper();
 
+    /**
+     * Get PV-Stars server wide region restore coordinator.
+     */
+    RestoreCoordinator getRestoreCoordinator();
+
+    /**
+     * Get PV-Stars chunk store shared by arena region snapshots.
+     */
+    ChunkStore getChunkStore();
+
     /**
      * Get PV-Stars global arena event manager.
      */
@@ -30,6 +30,8 @@ import com.jcwhatever.nucleus.managed.commands.ICommandDispatcher;
 import com.jcwhatever.pvs.api.arena.IArenaPlayer;
 import com.jcwhatever.pvs.api.arena.extensions.IExtensionTypeManager;
 import com.jcwhatever.pvs.api.arena.managers.IArenaManager;
+import com.jcwhatever.pvs.api.arena.region.ChunkStore;
+import com.jcwhatever.pvs.api.arena.region.RestoreCoordinator;
 import com.jcwhatever.pvs.api.commands.ICommandHelper;
 import com.jcwhatever.pvs.api.points.IPointsManager;
 import com.jcwhatever.pvs.api.spawns.ISpawnTypeManager;
@@ -72,6 +74,20 @@ public final class PVStarAPI {
         return _implementation.getSpawnTypeManager();
     }
 
+    /**
+     * Get the server wide region restore coordinator.
+     */
+    public static RestoreCoordinator getRestoreCoordinator() {
+        return _implementation.getRestoreCoordinator();
+    }
+
+    /**
+     * Get the chunk store shared by arena region snapshots.
+     */
+    public static ChunkStore getChunkStore() {
+        return _implementation.getChunkStore();
+    }
+
     /**
      * Get the command handler.
      */
@@ -35,19 +35,40 @@ import com.jcwhatever.nucleus.regions.options.LeaveRegionReason;
 import com.jcwhatever.nucleus.regions.options.RegionEventPriority;
 import com.jcwhatever.nucleus.storage.IDataNode;
 import com.jcwhatever.nucleus.utils.MetaKey;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.observer.future.IFutureResult;
 import com.jcwhatever.pvs.api.PVStarAPI;
 import com.jcwhatever.pvs.api.arena.mixins.IArenaOwned;
+import com.jcwhatever.pvs.api.arena.region.BlockChangeJournal;
+import com.jcwhatever.pvs.api.arena.region.ChunkStore;
+import com.jcwhatever.pvs.api.arena.region.ChunkStoreReader;
+import com.jcwhatever.pvs.api.arena.region.ChunkStoreWriter;
+import com.jcwhatever.pvs.api.arena.region.IChunkSink;
+import com.jcwhatever.pvs.api.arena.region.IChunkSource;
+import com.jcwhatever.pvs.api.arena.region.JournalRestoreEngine;
+import com.jcwhatever.pvs.api.arena.region.PaletteSnapshotReader;
+import com.jcwhatever.pvs.api.arena.region.PaletteSnapshotWriter;
+import com.jcwhatever.pvs.api.arena.region.RegionRestoreEngine;
+import com.jcwhatever.pvs.api.arena.region.RegionSaveEngine;
 import com.jcwhatever.pvs.api.events.region.ArenaRegionDefinedEvent;
 import com.jcwhatever.pvs.api.events.region.ArenaRegionPreRestoreEvent;
 import com.jcwhatever.pvs.api.events.region.ArenaRegionPreSaveEvent;
+import com.jcwhatever.pvs.api.events.region.ArenaRegionRestoreFailedEvent;
 import com.jcwhatever.pvs.api.events.region.ArenaRegionRestoredEvent;
 import com.jcwhatever.pvs.api.events.region.ArenaRegionSavedEvent;
 import com.jcwhatever.pvs.api.events.region.PlayerEnterArenaRegionEvent;
 import com.jcwhatever.pvs.api.events.region.PlayerLeaveArenaRegionEvent;
+import com.jcwhatever.pvs.api.utils.ArenaChunkPin;
 
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+
 /**
  * A region that represents the bounds of an arena.
  */
@@ -59,6 +80,13 @@ public class ArenaRegion extends RestorableRegion implements IArenaOwned {
 
     private final IArena _arena;
     private final FileFactory _fileFactory = new FileFactory();
+    private final ArenaChunkPin _chunkPin = new ArenaChunkPin(this);
+    private final BlockChangeJournal _journal = new BlockChangeJournal(this);
+
+    private RegionRestoreEngine _restoreEngine;
+    private RegionSaveEngine _saveEngine;
+    private JournalRestoreEngine _journalEngine;
+    private boolean _isRestoreFailed;
 
     /**
      * Constructor.
@@ -85,10 +113,383 @@ public class ArenaRegion extends RestorableRegion implements IArenaOwned {
         return _fileFactory;
     }
 
+    /**
+     * Get the regions chunk pin.
+     */
+    public ArenaChunkPin getChunkPin() {
+        return _chunkPin;
+    }
+
+    /**
+     * Load the regions chunks ahead of a match and keep them loaded
+     * until {@link #releaseChunks} is invoked.
+     *
+     * <p>Invoked when the lobby becomes active or when an
+     * {@link com.jcwhatever.pvs.api.events.ArenaPreStartEvent} is called.
+     * The number of chunks kept loaded is capped by
+     * {@link com.jcwhatever.pvs.api.arena.settings.IArenaSettings#getMaxPinnedChunks}.</p>
+     */
+    public void prewarmChunks() {
+        int maxChunks = getArena().getSettings().getMaxPinnedChunks();
+        if (maxChunks <= 0)
+            return;
+
+        _chunkPin.prewarm(maxChunks);
+    }
+
+    /**
+     * Release the chunks loaded by {@link #prewarmChunks}.
+     *
+     * <p>Invoked when an {@link com.jcwhatever.pvs.api.events.ArenaEndedEvent}
+     * is called.</p>
+     */
+    public void releaseChunks() {
+        _chunkPin.release();
+    }
+
+    /**
+     * Get the regions block change journal.
+     */
+    public BlockChangeJournal getJournal() {
+        return _journal;
+    }
+
+    /**
+     * Start recording changed blocks in the regions change journal.
+     *
+     * <p>Invoked when an {@link com.jcwhatever.pvs.api.events.ArenaStartedEvent}
+     * is called. Does nothing if the journal is disabled by
+     * {@link com.jcwhatever.pvs.api.arena.settings.IArenaSettings#getMaxJournalBlocks}.</p>
+     *
+     * @return  True if recording was started.
+     */
+    public boolean startJournal() {
+        int maxBlocks = getArena().getSettings().getMaxJournalBlocks();
+        if (maxBlocks <= 0) {
+            _journal.clear();
+            return false;
+        }
+
+        return _journal.start(maxBlocks);
+    }
+
+    /**
+     * Restore only the blocks recorded in the regions change journal.
+     *
+     * <p>Invoked when the match ends instead of a full restore. If the journal
+     * is disabled or has overflowed, nothing is restored and false is returned
+     * so the caller can fall back to a full restore.</p>
+     *
+     * <p>Up to {@link RegionRestoreEngine#DEFAULT_BLOCKS_PER_TICK} blocks are
+     * restored per tick. The arena is busy until the restore is complete.</p>
+     *
+     * @return  True if the region restore from the journal was started.
+     *
+     * @throws IllegalStateException if a chunked save or restore or a journal
+     * restore is already running.
+     */
+    public boolean restoreFromJournal() {
+        return restoreFromJournal(true) != null;
+    }
+
+    /**
+     * Restore only the blocks recorded in the regions change journal.
+     *
+     * <p>The arena is busy until the restore is complete.</p>
+     *
+     * @param isScheduled  True to restore blocks using the engines own task, false
+     *                     if {@link JournalRestoreEngine#step} is invoked by a coordinator.
+     *
+     * @return  A future that completes when all blocks are restored or null if the
+     * journal is disabled or has overflowed and the region must be fully restored.
+     *
+     * @throws IllegalStateException if a chunked save or restore or a journal
+     * restore is already running.
+     */
+    @Nullable
+    public IFutureResult<JournalRestoreEngine> restoreFromJournal(boolean isScheduled) {
+        if (!_journal.isValid())
+            return null;
+
+        checkNotRunning();
+
+        _journalEngine = new JournalRestoreEngine(_journal);
+
+        _journalEngine.setOnDone(new Runnable() {
+            @Override
+            public void run() {
+                JournalRestoreEngine engine = _journalEngine;
+                _journalEngine = null;
+
+                if (engine.isSuccess()) {
+                    onRestoreComplete();
+                }
+                else {
+                    onRestoreFailed(engine.getFailure());
+                }
+            }
+        });
+
+        onPreRestore();
+
+        return _journalEngine.start(isScheduled);
+    }
+
+    /**
+     * Get the journal restore engine that is currently running.
+     *
+     * @return  The engine or null if a journal restore is not running.
+     */
+    @Nullable
+    public JournalRestoreEngine getJournalRestoreEngine() {
+        return _journalEngine;
+    }
+
+    /**
+     * Get the chunked restore engine that is currently running.
+     *
+     * @return  The engine or null if a chunked restore is not running.
+     */
+    @Nullable
+    public RegionRestoreEngine getRestoreEngine() {
+        return _restoreEngine;
+    }
+
+    /**
+     * Get the chunked save engine that is currently running.
+     *
+     * @return  The engine or null if a chunked save is not running.
+     */
+    @Nullable
+    public RegionSaveEngine getSaveEngine() {
+        return _saveEngine;
+    }
+
+    /**
+     * Save the region one chunk at a time.
+     *
+     * <p>The arena is busy until the save is complete. Only block types and
+     * data values are saved.</p>
+     *
+     * @param sink  The destination of the captured chunks.
+     *
+     * @return  A future that completes when all chunks are written.
+     *
+     * @throws IllegalStateException if the region is not defined or a chunked
+     * save or restore is already running.
+     */
+    public IFutureResult<RegionSaveEngine> saveChunked(IChunkSink sink) {
+        PreCon.notNull(sink);
+        PreCon.isValid(isDefined(), "Region is not defined.");
+
+        checkNotRunning();
+
+        World world = getWorld();
+        PreCon.isValid(world != null, "Region world is not loaded.");
+
+        _saveEngine = new RegionSaveEngine(world,
+                getXStart(), getYStart(), getZStart(), getXEnd(), getYEnd(), getZEnd(), sink);
+
+        _saveEngine.setOnDone(new Runnable() {
+            @Override
+            public void run() {
+                RegionSaveEngine engine = _saveEngine;
+                _saveEngine = null;
+
+                if (engine.isSuccess()) {
+                    onSaveComplete();
+                }
+                else {
+                    onSaveFailed(engine.getFailure());
+                }
+            }
+        });
+
+        onPreSave();
+
+        return _saveEngine.start();
+    }
+
+    /**
+     * Restore the region one chunk at a time.
+     *
+     * <p>The arena is busy until the restore is complete. Only block types and
+     * data values are restored. Chunks are applied by the engines own scheduled
+     * task unless the engine is driven by a coordinator.</p>
+     *
+     * <p>If the restore fails or is cancelled, the arena is disabled and an
+     * {@link ArenaRegionRestoreFailedEvent} is called. The arena is enabled
+     * again when a later restore completes.</p>
+     *
+     * @param source       The saved chunk source.
+     * @param isScheduled  True to apply blocks using the engines own task, false
+     *                     if {@link RegionRestoreEngine#step} is invoked by a coordinator.
+     *
+     * @return  A future that completes when all chunks are restored.
+     *
+     * @throws IllegalStateException if a chunked save or restore is already running.
+     */
+    public IFutureResult<RegionRestoreEngine> restoreChunked(IChunkSource source, boolean isScheduled) {
+        PreCon.notNull(source);
+
+        checkNotRunning();
+
+        World world = getWorld();
+        PreCon.isValid(world != null, "Region world is not loaded.");
+
+        _restoreEngine = new RegionRestoreEngine(world, source);
+
+        _restoreEngine.setOnDone(new Runnable() {
+            @Override
+            public void run() {
+                RegionRestoreEngine engine = _restoreEngine;
+                _restoreEngine = null;
+
+                if (engine.isSuccess()) {
+                    onRestoreComplete();
+                }
+                else {
+                    onRestoreFailed(engine.getFailure());
+                }
+            }
+        });
+
+        onPreRestore();
+
+        return _restoreEngine.start(isScheduled);
+    }
+
+    /**
+     * Save the region to a palette compressed snapshot file, one chunk at a time.
+     *
+     * @param folder  The folder to save the snapshot file in.
+     *
+     * @return  A future that completes when the snapshot is written.
+     *
+     * @throws IOException if the snapshot file cannot be created.
+     *
+     * @see PaletteSnapshotWriter
+     */
+    public IFutureResult<RegionSaveEngine> saveSnapshot(File folder) throws IOException {
+        PreCon.notNull(folder);
+        PreCon.isValid(isDefined(), "Region is not defined.");
+
+        PreCon.isValid(getWorld() != null, "Region world is not loaded.");
+
+        checkNotRunning();
+
+        int chunkCount = RegionSaveEngine.getChunkCount(getXStart(), getZStart(), getXEnd(), getZEnd());
+        File file = new File(folder, PaletteSnapshotWriter.getFileName(_arena));
+
+        // the writer opens its temp file, remove it if the save cannot start
+        PaletteSnapshotWriter writer = new PaletteSnapshotWriter(file, chunkCount);
+        try {
+            return saveChunked(writer);
+        }
+        catch (RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Restore the region from a palette compressed snapshot file, one chunk at a time.
+     *
+     * @param folder       The folder the snapshot file is in.
+     * @param isScheduled  True to apply blocks using the engines own task, false
+     *                     if {@link RegionRestoreEngine#step} is invoked by a coordinator.
+     *
+     * @return  A future that completes when the region is restored.
+     *
+     * @throws IOException if the snapshot file cannot be read.
+     *
+     * @see PaletteSnapshotReader
+     */
+    public IFutureResult<RegionRestoreEngine> restoreSnapshot(File folder, boolean isScheduled)
+            throws IOException {
+        PreCon.notNull(folder);
+
+        PreCon.isValid(getWorld() != null, "Region world is not loaded.");
+
+        checkNotRunning();
+
+        File file = new File(folder, PaletteSnapshotWriter.getFileName(_arena));
+
+        // the reader opens the snapshot file, release it if the restore cannot start
+        PaletteSnapshotReader reader = new PaletteSnapshotReader(file);
+        try {
+            return restoreChunked(reader, isScheduled);
+        }
+        catch (RuntimeException e) {
+            closeSource(reader);
+            throw e;
+        }
+    }
+
+    /**
+     * Save the region into a shared chunk store, one chunk at a time.
+     *
+     * <p>Chunks already in the store are not written again.</p>
+     *
+     * @param store   The chunk store.
+     * @param folder  The folder to save the snapshot manifest file in.
+     *
+     * @return  A future that completes when the manifest is written.
+     *
+     * @see ChunkStoreWriter
+     */
+    public IFutureResult<RegionSaveEngine> saveToStore(ChunkStore store, File folder) {
+        PreCon.notNull(store);
+        PreCon.notNull(folder);
+
+        File manifest = new File(folder, ChunkStoreWriter.getFileName(_arena));
+
+        return saveChunked(new ChunkStoreWriter(store, manifest));
+    }
+
+    /**
+     * Restore the region from a shared chunk store, one chunk at a time.
+     *
+     * @param store        The chunk store.
+     * @param folder       The folder the snapshot manifest file is in.
+     * @param isScheduled  True to apply blocks using the engines own task, false
+     *                     if {@link RegionRestoreEngine#step} is invoked by a coordinator.
+     *
+     * @return  A future that completes when the region is restored.
+     *
+     * @throws IOException if the manifest file cannot be read.
+     *
+     * @see ChunkStoreReader
+     */
+    public IFutureResult<RegionRestoreEngine> restoreFromStore(ChunkStore store, File folder,
+                                                               boolean isScheduled) throws IOException {
+        PreCon.notNull(store);
+        PreCon.notNull(folder);
+
+        PreCon.isValid(getWorld() != null, "Region world is not loaded.");
+
+        checkNotRunning();
+
+        File manifest = new File(folder, ChunkStoreWriter.getFileName(_arena));
+
+        ChunkStoreReader reader = new ChunkStoreReader(store, manifest);
+        try {
+            return restoreChunked(reader, isScheduled);
+        }
+        catch (RuntimeException e) {
+            closeSource(reader);
+            throw e;
+        }
+    }
+
     @Override
     protected void onCoordsChanged(Location p1, Location p2) {
         super.onCoordsChanged(p1, p2);
 
+        // pinned chunks and journaled blocks may no longer be inside the region
+        _chunkPin.release();
+        _journal.clear();
+
         ArenaRegionDefinedEvent event = new ArenaRegionDefinedEvent(getArena());
         getArena().getEventManager().call(this, event);
     }
@@ -177,10 +578,68 @@ public class ArenaRegion extends RestorableRegion implements IArenaOwned {
      */
     @Override
     protected void onRestoreComplete() {
+
+        // re-enable an arena disabled by a failed restore
+        if (_isRestoreFailed) {
+            _isRestoreFailed = false;
+            getArena().getSettings().setTransientEnabled(getArena().getSettings().isConfigEnabled());
+        }
+
         getArena().setIdle();
         _arena.getEventManager().call(this, new ArenaRegionRestoredEvent(_arena));
     }
 
+    /*
+     * A chunked save failed or was cancelled. The saved event is not called,
+     * the region itself is unchanged.
+     */
+    private void onSaveFailed(@Nullable String failure) {
+        getArena().setIdle();
+
+        PVStarAPI.getPlugin().getLogger().warning(
+                "Arena '" + getArena().getName() + "': " + failure);
+    }
+
+    /*
+     * A chunked or journal restore failed or was cancelled. The region may be
+     * partially restored so the arena is disabled until a restore completes.
+     */
+    private void onRestoreFailed(@Nullable String failure) {
+        if (failure == null)
+            failure = "Region restore failed.";
+
+        _isRestoreFailed = true;
+        getArena().getSettings().setTransientEnabled(false);
+        getArena().setIdle();
+
+        PVStarAPI.getPlugin().getLogger().warning(
+                "Arena '" + getArena().getName() + "' disabled, region is not restored: " + failure);
+
+        _arena.getEventManager().call(this, new ArenaRegionRestoreFailedEvent(_arena, failure));
+    }
+
+    private void closeSource(IChunkSource source) {
+        try {
+            source.close();
+        }
+        catch (IOException e) {
+            PVStarAPI.getPlugin().getLogger().log(Level.WARNING,
+                    "Failed to close region restore source.", e);
+        }
+    }
+
+    private void checkNotRunning() {
+        if (_saveEngine != null || _restoreEngine != null)
+            throw new IllegalStateException("A chunked save or restore is already running.");
+
+        if (_journalEngine != null)
+            throw new IllegalStateException("A journal restore is already running.");
+
+        // save or restore using the regions own file format
+        if (isSaving() || isRestoring())
+            throw new IllegalStateException("A region file save or restore is already running.");
+    }
+
     private class FileFactory extends BasicFileFactory {
 
         @Override
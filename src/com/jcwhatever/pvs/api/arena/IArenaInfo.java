@@ -0,0 +1,102 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena;
+
+import com.jcwhatever.nucleus.mixins.INamedInsensitive;
+import com.jcwhatever.pvs.api.arena.region.RegionBounds;
+import org.bukkit.Location;
+
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Lightweight information about an arena that is available
+ * whether or not the arena is loaded.
+ *
+ * <p>When lazy loading is enabled, arenas are registered at startup using
+ * only the information needed to find them. The full {@link IArena} is
+ * loaded the first time it is used.</p>
+ */
+public interface IArenaInfo extends INamedInsensitive {
+
+    /**
+     * Get the arena ID.
+     */
+    UUID getId();
+
+    /**
+     * Get the arenas name in lower case letters.
+     */
+    @Override
+    String getSearchName();
+
+    /**
+     * Get the name of the arena type.
+     */
+    String getTypeName();
+
+    /**
+     * Determine if the arena is loaded.
+     */
+    boolean isLoaded();
+
+    /**
+     * Get the loaded arena.
+     *
+     * @return  The arena or null if not loaded.
+     */
+    @Nullable
+    IArena getArena();
+
+    /**
+     * Get the arena, loading it if it is not loaded.
+     *
+     * <p>Must be invoked from the main thread.</p>
+     *
+     * @return  The arena or null if the arena failed to load.
+     */
+    @Nullable
+    IArena load();
+
+    /**
+     * Get the saved bounds of the arena region without loading the arena.
+     *
+     * <p>Used to add the arena to the
+     * {@link com.jcwhatever.pvs.api.utils.ArenaRegionIndex} before it is loaded.</p>
+     *
+     * @return  The bounds or null if the arena region is not defined.
+     */
+    @Nullable
+    RegionBounds getRegionBounds();
+
+    /**
+     * Determine if a location is inside the saved bounds of the
+     * arena region without loading the arena.
+     *
+     * @param location  The location to check.
+     */
+    boolean isInRegion(Location location);
+}
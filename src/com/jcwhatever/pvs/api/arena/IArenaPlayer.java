@@ -36,6 +36,8 @@ import com.jcwhatever.pvs.api.arena.options.PlayerLeaveArenaReason;
 import com.jcwhatever.pvs.api.arena.options.TeamChangeReason;
 import com.jcwhatever.pvs.api.arena.settings.IContextSettings;
 import com.jcwhatever.pvs.api.stats.ISessionStatTracker;
+import com.jcwhatever.pvs.api.utils.SlottedMetaKey;
+import com.jcwhatever.pvs.api.utils.SlottedMetaStore;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 
@@ -249,6 +251,28 @@ public interface IArenaPlayer extends INamed, IMeta, IArenaOwned {
      */
     MetaStore getSessionMeta();
 
+    /**
+     * Get the players slotted meta data object for a specific arena,
+     * which is used until the {@link IArenaPlayer} instance is disposed.
+     *
+     * <p>Values keyed by a {@link SlottedMetaKey} are stored by slot index. The
+     * fallback store for dynamic keys is the same instance returned by
+     * {@link #getMeta(UUID)}.</p>
+     *
+     * @param arenaId  The ID of the arena.
+     */
+    SlottedMetaStore getSlottedMeta(UUID arenaId);
+
+    /**
+     * Get the players slotted session meta data object, which is used until
+     * the player joins another arena.
+     *
+     * <p>Intended for per-player game state read on hot paths such as damage
+     * and movement. The fallback store for dynamic keys is the same instance
+     * returned by {@link #getSessionMeta()}.</p>
+     */
+    SlottedMetaStore getSlottedSessionMeta();
+
     /**
      * Get the players health.
      */
@@ -300,6 +324,20 @@ public interface IArenaPlayer extends INamed, IMeta, IArenaOwned {
     @Nullable
     Location respawn();
 
+    /**
+     * Respawn the specified player at a spawnpoint appropriate to their
+     * current arena relation and copy the spawn location into an output
+     * {@link Location}.
+     *
+     * <p>Same as {@link #respawn()} except no {@link Location} is allocated.</p>
+     *
+     * @param output  The output location.
+     *
+     * @return  The output location or null if failed.
+     */
+    @Nullable
+    Location respawn(Location output);
+
     /**
      * Remove the player from the arena using the {@link PlayerLeaveArenaReason#PLAYER_LEAVE}
      * reason.
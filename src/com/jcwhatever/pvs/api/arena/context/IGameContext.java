@@ -47,9 +47,17 @@ public interface IGameContext extends IContextManager {
 
     /**
      * Determine if the arena game is running.
+     *
+     * <p>Returns false while the game is starting.</p>
      */
     boolean isRunning();
 
+    /**
+     * Determine if the game is starting and players are still being
+     * teleported from the lobby to the game spawns.
+     */
+    boolean isStarting();
+
     /**
      * Determine if the game is over, but the arena is still running.
      *
@@ -71,9 +79,15 @@ public interface IGameContext extends IContextManager {
     /**
      * Start the game. Transfers the next group of players from the lobby.
      *
+     * <p>Players are moved to the game spawns using a
+     * {@link com.jcwhatever.pvs.api.utils.BulkTeleport} which loads the
+     * spawn chunks and spreads the teleports over multiple ticks. The game is
+     * not marked as running and {@link com.jcwhatever.pvs.api.events.ArenaStartedEvent}
+     * is not called until the teleport is complete.</p>
+     *
      * @param reason  The reason the game is starting.
      *
-     * @return  True if the game was started.
+     * @return  True if the game is starting.
      */
     boolean start(ArenaStartReason reason);
 
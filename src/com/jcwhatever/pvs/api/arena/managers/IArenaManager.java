@@ -26,7 +26,10 @@
 package com.jcwhatever.pvs.api.arena.managers;
 
 import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.arena.IArenaInfo;
 import com.jcwhatever.pvs.api.arena.options.NameMatchMode;
+import com.jcwhatever.pvs.api.utils.ArenaLoadStats;
+import com.jcwhatever.pvs.api.utils.ArenaMatchmaker;
 
 import org.bukkit.Location;
 import org.bukkit.command.CommandSender;
@@ -38,6 +41,13 @@ import javax.annotation.Nullable;
 
 /**
  * Manages arenas.
+ *
+ * <p>When lazy loading is enabled, arenas are registered at startup as
+ * {@link IArenaInfo} stubs and each {@link IArena} is loaded the first time it
+ * is looked up by ID, exact name or location, i.e. when a player joins, an arena
+ * is selected by command or a region is entered. Prefix and search lookups, such
+ * as tab completion, should use {@link #getArenaInfo(String, NameMatchMode)} or
+ * {@link #getLoadedArenas(String, NameMatchMode)}, which do not load arenas.</p>
  */
 public interface IArenaManager {
 
@@ -60,6 +70,12 @@ public interface IArenaManager {
     /**
      * Change an arenas name.
      *
+     * <p>Clears the memoized conversions of
+     * {@link com.jcwhatever.pvs.api.utils.ArenaConverters} using
+     * {@link com.jcwhatever.pvs.api.utils.ArenaConverters#invalidate} since the
+     * new name may match a string that previously matched no arena or only
+     * one arena.</p>
+     *
      * @param arenaId  The id of the arena.
      * @param name     The new arena name.
      */
@@ -68,6 +84,8 @@ public interface IArenaManager {
     /**
      * Get an arena by id.
      *
+     * <p>Loads the arena if it is not loaded.</p>
+     *
      * @param arenaId  The id of the arena.
      */
     @Nullable
@@ -76,14 +94,41 @@ public interface IArenaManager {
     /**
      * Get the arena the player is in.
      *
+     * <p>Backed by an {@link com.jcwhatever.pvs.api.utils.ArenaPlayerIndex} so the
+     * lookup is a single hash read.</p>
+     *
      * @param player  The player to check.
      */
     @Nullable
     IArena getArena(Player player);
 
+    /**
+     * Get the number of players in the player to arena index.
+     */
+    int getIndexedPlayerCount();
+
+    /**
+     * Compare the player to arena index to the players in each arena.
+     *
+     * <p>Intended for debugging.</p>
+     *
+     * @return  A description of each inconsistency found. Empty if the
+     * index is consistent.
+     */
+    List<String> checkPlayerIndex();
+
     /**
      * Get the arena the location is in.
      *
+     * <p>Backed by an {@link com.jcwhatever.pvs.api.utils.ArenaRegionIndex} so the
+     * lookup does not scan every arena region. Safe to call from block and entity
+     * event handlers.</p>
+     *
+     * <p>When lazy loading is enabled, the index also holds the saved region bounds
+     * of the {@link IArenaInfo} stubs of arenas that are not loaded. If the location
+     * is inside such a region, the arena is found using
+     * {@link com.jcwhatever.pvs.api.utils.ArenaRegionIndex#getInfo} and loaded.</p>
+     *
      * @param location  The location.
      */
     @Nullable
@@ -92,21 +137,90 @@ public interface IArenaManager {
     /**
      * Get a list of arenas by name and match mode.
      *
+     * <p>Backed by an {@link com.jcwhatever.pvs.api.utils.ArenaNameIndex} that is
+     * updated when an arena is added, removed or renamed using
+     * {@link #setArenaName}.</p>
+     *
+     * <p>Matching arenas that are not loaded are loaded.</p>
+     *
      * @param arenaName  The name to search.
      * @param matchMode  The search match mode.
      */
     List<IArena> getArena(String arenaName, NameMatchMode matchMode);
 
     /**
-     * Get a list of all arenas.
+     * Get a list of loaded arenas by name and match mode.
+     *
+     * <p>Matching arenas that are not loaded are not included and are not loaded.</p>
+     *
+     * @param arenaName  The name to search.
+     * @param matchMode  The search match mode.
+     */
+    List<IArena> getLoadedArenas(String arenaName, NameMatchMode matchMode);
+
+    /**
+     * Get information about arenas by name and match mode without
+     * loading them.
+     *
+     * <p>Backed by an {@link com.jcwhatever.pvs.api.utils.ArenaNameIndex} of
+     * {@link IArenaInfo}. Intended for prefix and search matching, i.e. tab
+     * completion, while lazy loading is enabled.</p>
+     *
+     * @param arenaName  The name to search.
+     * @param matchMode  The search match mode.
+     */
+    List<IArenaInfo> getArenaInfo(String arenaName, NameMatchMode matchMode);
+
+    /**
+     * Get a list of all loaded arenas.
+     *
+     * <p>If lazy loading is disabled, all arenas are loaded.</p>
      */
     List<IArena> getArenas();
 
     /**
-     * Get the total number of arenas.
+     * Get the total number of arenas, loaded or not.
      */
     int getArenaCount();
 
+    /**
+     * Get the number of loaded arenas.
+     */
+    int getLoadedArenaCount();
+
+    /**
+     * Get information about all arenas, loaded or not.
+     */
+    List<IArenaInfo> getArenaInfo();
+
+    /**
+     * Get information about an arena without loading it.
+     *
+     * @param arenaId  The id of the arena.
+     *
+     * @return  The arena info or null if the arena is not found.
+     */
+    @Nullable
+    IArenaInfo getArenaInfo(UUID arenaId);
+
+    /**
+     * Determine if an arena is loaded.
+     *
+     * @param arenaId  The id of the arena.
+     */
+    boolean isLoaded(UUID arenaId);
+
+    /**
+     * Determine if arenas are loaded on first use instead
+     * of at startup.
+     */
+    boolean isLazyLoading();
+
+    /**
+     * Get arena registration and load times.
+     */
+    ArenaLoadStats getLoadStats();
+
     /**
      * Add an arena.
      *
@@ -126,4 +240,18 @@ public interface IArenaManager {
      * @return  True if the arena was found and removed.
      */
     boolean removeArena(UUID arenaId);
+
+    /**
+     * Get the manager of arenas created from template arenas.
+     */
+    IArenaTemplateManager getTemplateManager();
+
+    /**
+     * Get the matchmaker that assigns players queued for an
+     * arena type to arenas of that type.
+     *
+     * <p>Instances created by the template manager are registered using
+     * the templates arena type.</p>
+     */
+    ArenaMatchmaker getMatchmaker();
 }
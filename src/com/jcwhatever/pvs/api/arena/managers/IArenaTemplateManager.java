@@ -0,0 +1,125 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.managers;
+
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.utils.TemplateOffset;
+
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Manages arenas stamped from template arenas.
+ *
+ * <p>A template arena is marked using
+ * {@link com.jcwhatever.pvs.api.arena.settings.IArenaSettings#setTemplate}. Templates
+ * cannot be joined. Instances are created at a chunk aligned {@link TemplateOffset}
+ * from the template and receive a copy of the template settings, extensions and
+ * translated spawnpoints. The instance region is restored from the templates
+ * {@link com.jcwhatever.pvs.api.arena.region.ChunkStore} snapshot manifest, translated
+ * to the instance offset, so instances share the templates stored chunks.</p>
+ *
+ * <p>Instances are created and destroyed as demand changes: when an instance
+ * starts a match or is joined, instances are created until the template has
+ * {@link com.jcwhatever.pvs.api.arena.settings.IArenaSettings#getSpareInstances}
+ * joinable instances, up to
+ * {@link com.jcwhatever.pvs.api.arena.settings.IArenaSettings#getMaxInstances}.
+ * Idle instances beyond the spare count are destroyed when their match ends.</p>
+ */
+public interface IArenaTemplateManager {
+
+    /**
+     * Get all template arenas.
+     */
+    List<IArena> getTemplates();
+
+    /**
+     * Get the template an arena was created from.
+     *
+     * @param instance  The instance arena.
+     *
+     * @return  The template or null if the arena is not an instance.
+     */
+    @Nullable
+    IArena getTemplate(IArena instance);
+
+    /**
+     * Determine if an arena was created from a template.
+     *
+     * @param arena  The arena to check.
+     */
+    boolean isInstance(IArena arena);
+
+    /**
+     * Get the instances created from a template.
+     *
+     * @param template  The template arena.
+     */
+    List<IArena> getInstances(IArena template);
+
+    /**
+     * Get the offset of an instance from its template.
+     *
+     * @param instance  The instance arena.
+     *
+     * @return  The offset or null if the arena is not an instance.
+     */
+    @Nullable
+    TemplateOffset getOffset(IArena instance);
+
+    /**
+     * Create an instance of a template in the next free instance slot.
+     *
+     * @param template  The template arena.
+     *
+     * @return  The new instance or null if the template is at its max instances,
+     * has no saved snapshot or the instance could not be created.
+     */
+    @Nullable
+    IArena createInstance(IArena template);
+
+    /**
+     * Destroy an instance and free its slot.
+     *
+     * <p>The instance is removed from the arena manager and its region
+     * manifest is deleted. Stored chunks are left for garbage collection.</p>
+     *
+     * @param instance  The instance arena.
+     *
+     * @return  True if the arena was an idle instance and was destroyed.
+     */
+    boolean destroyInstance(IArena instance);
+
+    /**
+     * Create or destroy instances of a template to match the number of
+     * spare instances.
+     *
+     * @param template  The template arena.
+     *
+     * @return  The number of instances created minus the number destroyed.
+     */
+    int balanceInstances(IArena template);
+}
@@ -31,6 +31,10 @@ import com.jcwhatever.pvs.api.arena.mixins.IArenaOwned;
 import com.jcwhatever.pvs.api.arena.options.ArenaContext;
 import com.jcwhatever.pvs.api.spawns.SpawnType;
 import com.jcwhatever.pvs.api.spawns.Spawnpoint;
+import com.jcwhatever.pvs.api.utils.ArenaSpawnQueue;
+import com.jcwhatever.pvs.api.utils.PlayerPositionSnapshot;
+import com.jcwhatever.pvs.api.utils.SpawnGovernor;
+import org.bukkit.Location;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
@@ -38,6 +42,14 @@ import java.util.List;
 
 /**
  * Manages an arenas spawn points.
+ *
+ * <p>Lists returned by the {@code getAll} methods are unmodifiable views that
+ * are pre-bucketed by spawn type, team and context and do not contain reserved
+ * spawns. Only the buckets of a spawnpoint are updated when it is added, removed,
+ * reserved or unreserved. The views are returned without copying. Callers must
+ * not modify them.</p>
+ *
+ * @see com.jcwhatever.pvs.api.utils.SpawnBuckets
  */
 public interface ISpawnManager extends IArenaOwned {
 
@@ -111,6 +123,88 @@ public interface ISpawnManager extends IArenaOwned {
     @Nullable
     Spawnpoint get(String name);
 
+    /**
+     * Get the spawnpoint nearest to a location.
+     *
+     * <p>Backed by a spatial index of the arenas spawnpoints that is updated
+     * when a {@link com.jcwhatever.pvs.api.events.spawns.SpawnAddedEvent} or
+     * {@link com.jcwhatever.pvs.api.events.spawns.SpawnRemovedEvent} is called.</p>
+     *
+     * @param location  The location.
+     * @param type      Optional spawn type to filter by. Null for any type.
+     * @param team      Optional team to filter by. Null for any team.
+     *
+     * @return  The nearest spawnpoint or null if none found.
+     */
+    @Nullable
+    Spawnpoint getNearest(Location location, @Nullable SpawnType type, @Nullable ArenaTeam team);
+
+    /**
+     * Add the spawnpoints nearest to a location into an output collection,
+     * ordered nearest first.
+     *
+     * @param location  The location.
+     * @param count     The max number of spawnpoints to add.
+     * @param type      Optional spawn type to filter by. Null for any type.
+     * @param team      Optional team to filter by. Null for any team.
+     * @param output    The output collection.
+     *
+     * @return  The output collection.
+     */
+    <T extends Collection<? super Spawnpoint>> T getNearest(
+            Location location, int count, @Nullable SpawnType type, @Nullable ArenaTeam team, T output);
+
+    /**
+     * Add the spawnpoints within a radius of a location into an output collection.
+     *
+     * @param location  The center location.
+     * @param radius    The radius.
+     * @param type      Optional spawn type to filter by. Null for any type.
+     * @param team      Optional team to filter by. Null for any team.
+     * @param output    The output collection.
+     *
+     * @return  The output collection.
+     */
+    <T extends Collection<? super Spawnpoint>> T getInRadius(
+            Location location, double radius, @Nullable SpawnType type, @Nullable ArenaTeam team, T output);
+
+    /**
+     * Get a snapshot of the positions of the players in the arena game.
+     *
+     * <p>The snapshot is captured at most once per tick and shared by
+     * all callers in the same tick.</p>
+     */
+    PlayerPositionSnapshot getPlayerSnapshot();
+
+    /**
+     * Get the unreserved spawnpoint of the specified type that is
+     * farthest from the players opponents.
+     *
+     * <p>Uses the current {@link #getPlayerSnapshot} so each candidate
+     * spawn costs a single nearest opponent lookup.</p>
+     *
+     * @param player  The player being spawned.
+     * @param type    The spawn type.
+     *
+     * @return  The safest spawnpoint or null if there are no candidates.
+     */
+    @Nullable
+    Spawnpoint getSafestSpawn(IArenaPlayer player, SpawnType type);
+
+    /**
+     * Get the safety score of a spawnpoint for a player.
+     *
+     * <p>The score is the distance from the spawnpoint to the nearest
+     * opposing player in the current {@link #getPlayerSnapshot}. A higher
+     * score is safer.</p>
+     *
+     * @param spawn   The spawnpoint.
+     * @param player  The player being spawned.
+     *
+     * @return  The score or {@link Double#MAX_VALUE} if there are no opponents.
+     */
+    double getSafetyScore(Spawnpoint spawn, IArenaPlayer player);
+
     /**
      * Add a spawnpoint.
      *
@@ -121,6 +215,10 @@ public interface ISpawnManager extends IArenaOwned {
     /**
      * Add a collection of spawnpoints.
      *
+     * <p>The arenas spawns are saved as a single batch write of the arenas
+     * {@link com.jcwhatever.pvs.api.spawns.SpawnpointTable} instead of one
+     * data node per spawn.</p>
+     *
      * @param spawns  The collection to add
      */
     void addAll(Collection<? extends Spawnpoint> spawns);
@@ -137,10 +235,27 @@ public interface ISpawnManager extends IArenaOwned {
     /**
      * Remove a collection of spawnpoints.
      *
+     * <p>The arenas spawns are saved as a single batch write of the arenas
+     * {@link com.jcwhatever.pvs.api.spawns.SpawnpointTable}.</p>
+     *
      * @param spawns  The collection to remove.
      */
     void removeAll(Collection<? extends Spawnpoint> spawns);
 
+    /**
+     * Get the queue used to spawn entities from spawner spawnpoints
+     * over multiple ticks.
+     *
+     * <p>Queued spawns are cancelled when the arena game ends.</p>
+     */
+    ArenaSpawnQueue getSpawnQueue();
+
+    /**
+     * Get the governor that tracks live entities spawned from the arenas
+     * spawnpoints and enforces the arenas entity ceilings.
+     */
+    SpawnGovernor getGovernor();
+
     /**
      * Reserves a spawn point for a player by removing it as a candidate
      * for the managers getter methods (getRandomSpawn, getSpawns, etc).
@@ -150,6 +265,35 @@ public interface ISpawnManager extends IArenaOwned {
      */
     void reserve(IArenaPlayer player, Spawnpoint spawn);
 
+    /**
+     * Reserve a random unreserved spawnpoint of the specified type and team
+     * for a player.
+     *
+     * <p>Free spawns are kept in per type and team free-lists so selecting
+     * and reserving a spawn is constant time.</p>
+     *
+     * @param player  The player to reserve the spawn for.
+     * @param type    The spawn type.
+     * @param team    The spawn team.
+     *
+     * @return  The reserved spawnpoint or null if there are no free spawns or
+     * the {@link com.jcwhatever.pvs.api.events.spawns.ReserveSpawnEvent} was cancelled.
+     *
+     * @see com.jcwhatever.pvs.api.utils.SpawnAllocator
+     */
+    @Nullable
+    Spawnpoint reserveRandom(IArenaPlayer player, SpawnType type, ArenaTeam team);
+
+    /**
+     * Get the spawnpoint reserved for a player.
+     *
+     * @param player  The player.
+     *
+     * @return  The spawnpoint or null if the player does not have a reserved spawn.
+     */
+    @Nullable
+    Spawnpoint getReserved(IArenaPlayer player);
+
     /**
      * Removes the reserved status of the spawnpoint reserved for a player
      * and makes it available via the managers spawnpoint getter methods.
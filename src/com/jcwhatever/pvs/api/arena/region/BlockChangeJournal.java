@@ -0,0 +1,377 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.ArenaRegion;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+
+import java.util.Arrays;
+
+/**
+ * Records the original state of blocks changed inside an {@link ArenaRegion}
+ * so the region can be restored by replaying only the changed blocks.
+ *
+ * <p>Only the first change to a block is recorded. If the number of changed
+ * blocks exceeds the journal limit, the journal is discarded and the region
+ * must be fully restored.</p>
+ *
+ * <p>Block type ids and data values are recorded. Changes that do not call a
+ * Bukkit event, i.e. changes made directly by other plugins, are not recorded
+ * unless the plugin invokes {@link #record}. Container contents are not
+ * recorded.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class BlockChangeJournal {
+
+    // unused slot marker. Decodes to an X coordinate outside of the world border.
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final ArenaRegion _region;
+
+    private World _world;
+    private int _minX;
+    private int _minY;
+    private int _minZ;
+    private int _maxX;
+    private int _maxY;
+    private int _maxZ;
+
+    private int _limit;
+    private boolean _isRecording;
+    private boolean _isValid;
+
+    // open addressing map of block key to original block state
+    private long[] _keys = newKeys(INITIAL_CAPACITY);
+    private int[] _states = new int[INITIAL_CAPACITY];
+    private int _size;
+
+    // next slot to restore
+    private int _restoreIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param region  The region to record changes in.
+     */
+    public BlockChangeJournal(ArenaRegion region) {
+        PreCon.notNull(region);
+
+        _region = region;
+    }
+
+    /**
+     * Get the region changes are recorded in.
+     */
+    public ArenaRegion getRegion() {
+        return _region;
+    }
+
+    /**
+     * Get the number of recorded blocks.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Get the max number of blocks that can be recorded.
+     */
+    public int getLimit() {
+        return _limit;
+    }
+
+    /**
+     * Determine if changes are being recorded.
+     */
+    public boolean isRecording() {
+        return _isRecording;
+    }
+
+    /**
+     * Determine if the journal holds every change made since
+     * recording was started and can be used to restore the region.
+     */
+    public boolean isValid() {
+        return _isValid;
+    }
+
+    /**
+     * Discard recorded changes and start recording.
+     *
+     * @param limit  The max number of blocks that can be recorded.
+     *
+     * @return  True if recording was started, false if the region is not defined.
+     */
+    public boolean start(int limit) {
+        PreCon.greaterThanZero(limit);
+
+        clear();
+
+        if (!_region.isDefined())
+            return false;
+
+        _world = _region.getWorld();
+        if (_world == null)
+            return false;
+
+        _minX = _region.getXStart();
+        _minY = _region.getYStart();
+        _minZ = _region.getZStart();
+        _maxX = _region.getXEnd();
+        _maxY = _region.getYEnd();
+        _maxZ = _region.getZEnd();
+
+        _limit = limit;
+        _isValid = true;
+        _isRecording = true;
+
+        JournalListener.add(this);
+
+        return true;
+    }
+
+    /**
+     * Stop recording changes.
+     *
+     * <p>Recorded changes are kept.</p>
+     */
+    public void stop() {
+        if (!_isRecording)
+            return;
+
+        JournalListener.remove(this);
+        _isRecording = false;
+    }
+
+    /**
+     * Stop recording and discard recorded changes.
+     */
+    public void clear() {
+        stop();
+
+        _isValid = false;
+        _world = null;
+
+        if (_keys.length > INITIAL_CAPACITY) {
+            _keys = newKeys(INITIAL_CAPACITY);
+            _states = new int[INITIAL_CAPACITY];
+        }
+        else {
+            Arrays.fill(_keys, EMPTY);
+        }
+        _size = 0;
+        _restoreIndex = 0;
+    }
+
+    /**
+     * Restore the recorded blocks to their original state, then
+     * discard the recorded changes.
+     *
+     * @return  True if the blocks were restored, false if the journal is not valid
+     * and the region must be fully restored.
+     */
+    public boolean restore() {
+        if (!_isValid) {
+            stop();
+            return false;
+        }
+
+        restore(Integer.MAX_VALUE);
+        return true;
+    }
+
+    /**
+     * Restore up to the specified number of recorded blocks to their
+     * original state.
+     *
+     * <p>Recording is stopped on the first invocation. Invoke repeatedly to spread
+     * a large restore over multiple ticks. The recorded changes are discarded and
+     * the journal is no longer valid when all blocks are restored.</p>
+     *
+     * @param maxBlocks  The max number of blocks to restore.
+     *
+     * @return  The number of blocks restored.
+     *
+     * @throws IllegalStateException if the journal is not valid.
+     *
+     * @see JournalRestoreEngine
+     */
+    public int restore(int maxBlocks) {
+        PreCon.greaterThanZero(maxBlocks);
+
+        if (!_isValid)
+            throw new IllegalStateException("Block change journal is not valid.");
+
+        stop();
+
+        int restored = 0;
+
+        for (; _restoreIndex < _keys.length && restored < maxBlocks; _restoreIndex++) {
+            long key = _keys[_restoreIndex];
+            if (key == EMPTY)
+                continue;
+
+            Block block = _world.getBlockAt(getX(key), getY(key), getZ(key));
+            int typeId = ChunkBlocks.getTypeId(_states[_restoreIndex]);
+            byte data = ChunkBlocks.getData(_states[_restoreIndex]);
+
+            if (block.getTypeId() != typeId || block.getData() != data)
+                block.setTypeIdAndData(typeId, data, false);
+
+            restored++;
+        }
+
+        // skip trailing empty slots so the journal is cleared with the last block
+        while (_restoreIndex < _keys.length && _keys[_restoreIndex] == EMPTY)
+            _restoreIndex++;
+
+        if (_restoreIndex == _keys.length)
+            clear();
+
+        return restored;
+    }
+
+    /**
+     * Record the current state of a block before it is changed.
+     *
+     * <p>Does nothing if the block is outside of the region, is already
+     * recorded or the journal is not recording.</p>
+     *
+     * @param block  The block.
+     */
+    public void record(Block block) {
+        PreCon.notNull(block);
+
+        if (!_isRecording || !_world.equals(block.getWorld()))
+            return;
+
+        record(block.getX(), block.getY(), block.getZ(), block.getTypeId(), block.getData());
+    }
+
+    /**
+     * Record the state of a block before it is changed.
+     *
+     * <p>Does nothing if the block is outside of the region, is already
+     * recorded or the journal is not recording.</p>
+     *
+     * @param state  The original block state.
+     */
+    public void record(BlockState state) {
+        PreCon.notNull(state);
+
+        if (!_isRecording || !_world.equals(state.getWorld()))
+            return;
+
+        record(state.getX(), state.getY(), state.getZ(), state.getTypeId(), state.getRawData());
+    }
+
+    private void record(int x, int y, int z, int typeId, int data) {
+
+        if (x < _minX || x > _maxX || y < _minY || y > _maxY || z < _minZ || z > _maxZ)
+            return;
+
+        long key = toKey(x, y, z);
+        int mask = _keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (_keys[slot] != EMPTY) {
+            if (_keys[slot] == key)
+                return;
+
+            slot = (slot + 1) & mask;
+        }
+
+        if (_size == _limit) {
+            // too many changes to replay, discard to free memory
+            clear();
+            return;
+        }
+
+        _keys[slot] = key;
+        _states[slot] = ChunkBlocks.toState(typeId, data);
+        _size++;
+
+        // keep load factor under 0.5
+        if (_size * 2 > _keys.length)
+            grow();
+    }
+
+    private void grow() {
+
+        long[] keys = _keys;
+        int[] states = _states;
+
+        _keys = newKeys(keys.length * 2);
+        _states = new int[keys.length * 2];
+
+        int mask = _keys.length - 1;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY)
+                continue;
+
+            int slot = mix(keys[i]) & mask;
+            while (_keys[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+
+            _keys[slot] = keys[i];
+            _states[slot] = states[i];
+        }
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    private static long toKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static int getX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int getY(long key) {
+        return (int) (key & 0xFFF);
+    }
+
+    private static int getZ(long key) {
+        return (int) ((key << 26) >> 38);
+    }
+
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+
+/**
+ * The block states of the part of a region that is inside a single chunk.
+ *
+ * <p>A block state is the block type id shifted left 4 bits combined with the
+ * block data value. States are ordered by Y, then Z, then X.</p>
+ */
+public class ChunkBlocks {
+
+    private final int _chunkX;
+    private final int _chunkZ;
+    private final int _minX;
+    private final int _minY;
+    private final int _minZ;
+    private final int _sizeX;
+    private final int _sizeY;
+    private final int _sizeZ;
+    private final int[] _states;
+
+    /**
+     * Constructor.
+     *
+     * @param chunkX  The chunk X coordinates.
+     * @param chunkZ  The chunk Z coordinates.
+     * @param minX    The lowest block X coordinates.
+     * @param minY    The lowest block Y coordinates.
+     * @param minZ    The lowest block Z coordinates.
+     * @param sizeX   The number of blocks on the X axis.
+     * @param sizeY   The number of blocks on the Y axis.
+     * @param sizeZ   The number of blocks on the Z axis.
+     */
+    public ChunkBlocks(int chunkX, int chunkZ,
+                       int minX, int minY, int minZ,
+                       int sizeX, int sizeY, int sizeZ) {
+        this(chunkX, chunkZ, minX, minY, minZ, sizeX, sizeY, sizeZ, new int[sizeX * sizeY * sizeZ]);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param chunkX  The chunk X coordinates.
+     * @param chunkZ  The chunk Z coordinates.
+     * @param minX    The lowest block X coordinates.
+     * @param minY    The lowest block Y coordinates.
+     * @param minZ    The lowest block Z coordinates.
+     * @param sizeX   The number of blocks on the X axis.
+     * @param sizeY   The number of blocks on the Y axis.
+     * @param sizeZ   The number of blocks on the Z axis.
+     * @param states  The block states.
+     */
+    public ChunkBlocks(int chunkX, int chunkZ,
+                       int minX, int minY, int minZ,
+                       int sizeX, int sizeY, int sizeZ, int[] states) {
+        PreCon.greaterThanZero(sizeX);
+        PreCon.greaterThanZero(sizeY);
+        PreCon.greaterThanZero(sizeZ);
+        PreCon.notNull(states);
+        PreCon.isValid(states.length == sizeX * sizeY * sizeZ, "Invalid number of block states.");
+
+        _chunkX = chunkX;
+        _chunkZ = chunkZ;
+        _minX = minX;
+        _minY = minY;
+        _minZ = minZ;
+        _sizeX = sizeX;
+        _sizeY = sizeY;
+        _sizeZ = sizeZ;
+        _states = states;
+    }
+
+    /**
+     * Determine if block counts are valid for the part of a single chunk.
+     *
+     * @param sizeX  The number of blocks on the X axis.
+     * @param sizeY  The number of blocks on the Y axis.
+     * @param sizeZ  The number of blocks on the Z axis.
+     */
+    public static boolean isValidSize(int sizeX, int sizeY, int sizeZ) {
+        return sizeX > 0 && sizeX <= 16 &&
+                sizeY > 0 && sizeY <= 4096 &&
+                sizeZ > 0 && sizeZ <= 16;
+    }
+
+    /**
+     * Combine a block type id and data value into a block state.
+     *
+     * @param typeId  The block type id.
+     * @param data    The block data.
+     */
+    public static int toState(int typeId, int data) {
+        return (typeId << 4) | (data & 0xF);
+    }
+
+    /**
+     * Get the block type id of a block state.
+     *
+     * @param state  The block state.
+     */
+    public static int getTypeId(int state) {
+        return state >>> 4;
+    }
+
+    /**
+     * Get the block data value of a block state.
+     *
+     * @param state  The block state.
+     */
+    public static byte getData(int state) {
+        return (byte) (state & 0xF);
+    }
+
+    /**
+     * Get the chunk X coordinates.
+     */
+    public int getChunkX() {
+        return _chunkX;
+    }
+
+    /**
+     * Get the chunk Z coordinates.
+     */
+    public int getChunkZ() {
+        return _chunkZ;
+    }
+
+    /**
+     * Get the lowest block X coordinates.
+     */
+    public int getMinX() {
+        return _minX;
+    }
+
+    /**
+     * Get the lowest block Y coordinates.
+     */
+    public int getMinY() {
+        return _minY;
+    }
+
+    /**
+     * Get the lowest block Z coordinates.
+     */
+    public int getMinZ() {
+        return _minZ;
+    }
+
+    /**
+     * Get the number of blocks on the X axis.
+     */
+    public int getSizeX() {
+        return _sizeX;
+    }
+
+    /**
+     * Get the number of blocks on the Y axis.
+     */
+    public int getSizeY() {
+        return _sizeY;
+    }
+
+    /**
+     * Get the number of blocks on the Z axis.
+     */
+    public int getSizeZ() {
+        return _sizeZ;
+    }
+
+    /**
+     * Get the total number of blocks.
+     */
+    public int size() {
+        return _states.length;
+    }
+
+    /**
+     * Get the block state array.
+     *
+     * <p>The array is not a copy.</p>
+     */
+    public int[] getStates() {
+        return _states;
+    }
+
+    /**
+     * Get the index of a block state.
+     *
+     * @param x  The block X coordinates.
+     * @param y  The block Y coordinates.
+     * @param z  The block Z coordinates.
+     */
+    public int getIndex(int x, int y, int z) {
+        return ((y - _minY) * _sizeZ + (z - _minZ)) * _sizeX + (x - _minX);
+    }
+
+    /**
+     * Get the X coordinates of the block at a state index.
+     *
+     * @param index  The state index.
+     */
+    public int getX(int index) {
+        return _minX + index % _sizeX;
+    }
+
+    /**
+     * Get the Y coordinates of the block at a state index.
+     *
+     * @param index  The state index.
+     */
+    public int getY(int index) {
+        return _minY + index / (_sizeX * _sizeZ);
+    }
+
+    /**
+     * Get the Z coordinates of the block at a state index.
+     *
+     * @param index  The state index.
+     */
+    public int getZ(int index) {
+        return _minZ + (index / _sizeX) % _sizeZ;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A content addressed store of encoded chunk data shared by arena snapshots.
+ *
+ * <p>Each chunk is stored once in a file named by the SHA-1 hash of its
+ * encoded bytes. Arena snapshots are saved as manifests that reference chunks
+ * by hash, so arenas built from the same map share stored chunks. Chunk data
+ * is encoded relative to the chunk, so copies only share chunks if they are
+ * placed on the same chunk alignment.</p>
+ *
+ * <p>Chunks no longer referenced by any manifest are removed by
+ * {@link #collectGarbage}.</p>
+ *
+ * <p>{@link #put}, {@link #read} and {@link #collectGarbage} are thread safe.</p>
+ */
+public class ChunkStore {
+
+    /**
+     * The number of bytes in a chunk hash.
+     */
+    public static final int HASH_SIZE = 20;
+
+    private static final String CHUNK_EXTENSION = ".chunk";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // number of locks chunk files are spread over
+    private static final int LOCK_STRIPES = 64;
+
+    private final File _folder;
+
+    // locks that make reusing and removing a chunk file mutually exclusive
+    private final Object[] _locks = new Object[LOCK_STRIPES];
+
+    /**
+     * Constructor.
+     *
+     * @param folder  The folder chunks are stored in.
+     */
+    public ChunkStore(File folder) {
+        PreCon.notNull(folder);
+
+        _folder = folder;
+
+        for (int i = 0; i < _locks.length; i++)
+            _locks[i] = new Object();
+    }
+
+    /**
+     * Get the folder chunks are stored in.
+     */
+    public File getFolder() {
+        return _folder;
+    }
+
+    /**
+     * Hash encoded chunk data.
+     *
+     * @param data  The encoded chunk data.
+     *
+     * @return  The SHA-1 hash.
+     */
+    public static byte[] hash(byte[] data) {
+        PreCon.notNull(data);
+
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(data);
+        }
+        catch (NoSuchAlgorithmException e) {
+            // SHA-1 is required to be available on every Java platform
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Determine if a chunk is stored.
+     *
+     * @param hash  The chunk hash.
+     */
+    public boolean contains(byte[] hash) {
+        return getFile(hash).isFile();
+    }
+
+    /**
+     * Store encoded chunk data if it is not already stored.
+     *
+     * @param hash  The hash of the data.
+     * @param data  The encoded chunk data.
+     *
+     * @return  True if the chunk was written, false if it was already stored.
+     *
+     * @throws IOException if the chunk cannot be written.
+     */
+    public boolean put(byte[] hash, byte[] data) throws IOException {
+        PreCon.notNull(data);
+
+        File file = getFile(hash);
+
+        synchronized (getLock(file.getName())) {
+            // keep the chunk from being collected while its manifest is written.
+            // If the chunk was just collected it is written again.
+            if (file.isFile() && file.setLastModified(System.currentTimeMillis()))
+                return false;
+        }
+
+        File folder = file.getParentFile();
+        if (!folder.isDirectory() && !folder.mkdirs() && !folder.isDirectory())
+            throw new IOException("Failed to create chunk store folder: " + folder.getPath());
+
+        File temp = File.createTempFile(file.getName(), ".tmp", folder);
+
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(data);
+            }
+
+            // an identical chunk written by another thread has the same content
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            if (temp.exists() && !temp.delete())
+                temp.deleteOnExit();
+        }
+
+        return true;
+    }
+
+    /**
+     * Read encoded chunk data.
+     *
+     * @param hash  The chunk hash.
+     *
+     * @throws IOException if the chunk is not stored or cannot be read.
+     */
+    public byte[] read(byte[] hash) throws IOException {
+        return Files.readAllBytes(getFile(hash).toPath());
+    }
+
+    /**
+     * Remove stored chunks that are not referenced by any of the
+     * specified manifests.
+     *
+     * <p>Chunks written or reused within the minimum age are kept so chunks
+     * of a snapshot still being saved are not removed.</p>
+     *
+     * @param manifests     The manifest files of all arena snapshots.
+     * @param minAgeMillis  The minimum time in milliseconds since a chunk was
+     *                      last written or reused before it can be removed.
+     *
+     * @return  The number of chunks removed.
+     *
+     * @throws IOException if a manifest cannot be read.
+     */
+    public int collectGarbage(Collection<File> manifests, long minAgeMillis) throws IOException {
+        PreCon.notNull(manifests);
+        PreCon.positiveNumber(minAgeMillis);
+
+        long cutoff = System.currentTimeMillis() - minAgeMillis;
+
+        Set<String> referenced = new HashSet<>(manifests.size() * 100);
+
+        for (File manifest : manifests) {
+            if (!manifest.isFile())
+                continue;
+
+            for (byte[] hash : ChunkStoreReader.readHashes(manifest))
+                referenced.add(toHex(hash));
+        }
+
+        File[] folders = _folder.listFiles();
+        if (folders == null)
+            return 0;
+
+        int removed = 0;
+
+        for (File folder : folders) {
+            File[] files = folder.listFiles();
+            if (files == null)
+                continue;
+
+            for (File file : files) {
+                String name = file.getName();
+                if (!name.endsWith(CHUNK_EXTENSION))
+                    continue;
+
+                String hex = name.substring(0, name.length() - CHUNK_EXTENSION.length());
+                if (referenced.contains(hex))
+                    continue;
+
+                synchronized (getLock(name)) {
+                    // check the age while holding the lock, put may have just reused the chunk
+                    if (file.lastModified() <= cutoff && file.delete())
+                        removed++;
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    private File getFile(byte[] hash) {
+        PreCon.notNull(hash);
+        PreCon.isValid(hash.length == HASH_SIZE, "Invalid chunk hash.");
+
+        String hex = toHex(hash);
+
+        // spread chunks over sub folders by the first hash byte
+        return new File(new File(_folder, hex.substring(0, 2)), hex + CHUNK_EXTENSION);
+    }
+
+    private Object getLock(String fileName) {
+        return _locks[(fileName.hashCode() & 0x7FFFFFFF) % LOCK_STRIPES];
+    }
+
+    private static String toHex(byte[] hash) {
+        char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            chars[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a region snapshot saved into a {@link ChunkStore} by a
+ * {@link ChunkStoreWriter}.
+ *
+ * <p>The manifest is loaded when the reader is created. Chunk data is read
+ * from the store one chunk at a time when requested.</p>
+ *
+ * <p>{@link #readChunk} is thread safe.</p>
+ */
+public class ChunkStoreReader implements IChunkSource {
+
+    /**
+     * Read the chunk hashes referenced by a manifest file.
+     *
+     * @param manifest  The manifest file.
+     *
+     * @throws IOException if the file cannot be read or is not a manifest.
+     */
+    public static List<byte[]> readHashes(File manifest) throws IOException {
+        PreCon.notNull(manifest);
+
+        return Arrays.asList(new Manifest(manifest).hashes);
+    }
+
+    private final ChunkStore _store;
+    private final Manifest _manifest;
+
+    /**
+     * Constructor.
+     *
+     * @param store     The chunk store.
+     * @param manifest  The snapshot manifest file.
+     *
+     * @throws IOException if the file cannot be read or is not a manifest.
+     */
+    public ChunkStoreReader(ChunkStore store, File manifest) throws IOException {
+        PreCon.notNull(store);
+        PreCon.notNull(manifest);
+
+        _store = store;
+        _manifest = new Manifest(manifest);
+    }
+
+    @Override
+    public int getChunkCount() {
+        return _manifest.hashes.length;
+    }
+
+    @Override
+    public ChunkBlocks readChunk(int index) throws IOException {
+        PreCon.positiveNumber(index);
+        PreCon.isValid(index < _manifest.hashes.length, "Chunk index out of range.");
+
+        int chunkX = _manifest.chunkX[index];
+        int chunkZ = _manifest.chunkZ[index];
+
+        ByteBuffer buffer = ByteBuffer.wrap(_store.read(_manifest.hashes[index]));
+
+        try {
+            int minX = (chunkX << 4) + buffer.get();
+            int minY = buffer.getShort();
+            int minZ = (chunkZ << 4) + buffer.get();
+            int sizeX = buffer.getShort();
+            int sizeY = buffer.getShort();
+            int sizeZ = buffer.getShort();
+
+            if (!ChunkBlocks.isValidSize(sizeX, sizeY, sizeZ))
+                throw new IOException("Invalid chunk size.");
+
+            int[] states = PaletteCodec.read(buffer, sizeX * sizeY * sizeZ);
+
+            return new ChunkBlocks(chunkX, chunkZ, minX, minY, minZ, sizeX, sizeY, sizeZ, states);
+        }
+        catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Malformed chunk in chunk store: " + chunkX + ", " + chunkZ, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // chunks are read on demand, nothing to release
+    }
+
+    static class Manifest {
+        final int[] chunkX;
+        final int[] chunkZ;
+        final byte[][] hashes;
+
+        Manifest(File file) throws IOException {
+
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file), 8192))) {
+
+                if (in.readInt() != ChunkStoreWriter.MAGIC)
+                    throw new IOException("File is not a chunk store manifest: " + file.getName());
+
+                int version = in.readInt();
+                if (version != ChunkStoreWriter.VERSION)
+                    throw new IOException("Unsupported chunk store manifest version: " + version);
+
+                int count = in.readInt();
+                if (count < 0)
+                    throw new IOException("Malformed chunk store manifest: " + file.getName());
+
+                chunkX = new int[count];
+                chunkZ = new int[count];
+                hashes = new byte[count][];
+
+                for (int i = 0; i < count; i++) {
+                    chunkX[i] = in.readInt();
+                    chunkZ[i] = in.readInt();
+                    hashes[i] = new byte[ChunkStore.HASH_SIZE];
+                    in.readFully(hashes[i]);
+                }
+            }
+        }
+    }
+}
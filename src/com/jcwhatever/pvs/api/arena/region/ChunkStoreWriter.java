@@ -0,0 +1,207 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.IArena;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Saves a region snapshot into a {@link ChunkStore}.
+ *
+ * <p>Each chunk is encoded relative to its chunk coordinates and stored by
+ * hash. The snapshot itself is a manifest of chunk coordinates and hashes,
+ * written when the writer is closed.</p>
+ */
+public class ChunkStoreWriter implements IChunkSink {
+
+    /**
+     * The manifest file extension.
+     */
+    public static final String FILE_EXTENSION = ".chunks";
+
+    static final int MAGIC = 0x5056434D; // PVCM
+    static final int VERSION = 1;
+
+    /**
+     * Get the name of an arenas snapshot manifest file.
+     *
+     * @param arena  The arena.
+     */
+    public static String getFileName(IArena arena) {
+        PreCon.notNull(arena);
+
+        return "arena." + arena.getId() + FILE_EXTENSION;
+    }
+
+    /**
+     * Write a copy of a snapshot manifest with chunk coordinates offset.
+     *
+     * <p>The copy references the same stored chunks, so restoring it places
+     * the same blocks at the offset without storing any chunk data.</p>
+     *
+     * @param source   The manifest to copy.
+     * @param dest     The manifest file to write.
+     * @param offsetX  The X axis offset in chunks.
+     * @param offsetZ  The Z axis offset in chunks.
+     *
+     * @throws IOException if the source cannot be read or the copy cannot be written.
+     */
+    public static void translate(File source, File dest, int offsetX, int offsetZ) throws IOException {
+        PreCon.notNull(source);
+        PreCon.notNull(dest);
+
+        ChunkStoreReader.Manifest manifest = new ChunkStoreReader.Manifest(source);
+
+        File temp = new File(dest.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp), 8192))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(manifest.hashes.length);
+
+            for (int i = 0; i < manifest.hashes.length; i++) {
+                out.writeInt(manifest.chunkX[i] + offsetX);
+                out.writeInt(manifest.chunkZ[i] + offsetZ);
+                out.write(manifest.hashes[i]);
+            }
+        }
+
+        Files.move(temp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private final ChunkStore _store;
+    private final File _manifest;
+    private final ByteArrayOutputStream _entryBytes = new ByteArrayOutputStream(1024);
+    private final DataOutputStream _entries = new DataOutputStream(_entryBytes);
+    private final ByteArrayOutputStream _chunkBytes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream _chunk = new DataOutputStream(_chunkBytes);
+    private final PaletteCodec _codec = new PaletteCodec();
+
+    private int _written;
+    private int _stored;
+    private boolean _isClosed;
+
+    /**
+     * Constructor.
+     *
+     * @param store     The chunk store.
+     * @param manifest  The snapshot manifest file.
+     */
+    public ChunkStoreWriter(ChunkStore store, File manifest) {
+        PreCon.notNull(store);
+        PreCon.notNull(manifest);
+
+        _store = store;
+        _manifest = manifest;
+    }
+
+    /**
+     * Get the number of chunks written.
+     */
+    public int getWrittenChunks() {
+        return _written;
+    }
+
+    /**
+     * Get the number of written chunks that were not already in the store.
+     */
+    public int getStoredChunks() {
+        return _stored;
+    }
+
+    @Override
+    public void writeChunk(ChunkBlocks chunk) throws IOException {
+        PreCon.notNull(chunk);
+
+        if (_isClosed)
+            throw new IOException("Chunk store writer is closed.");
+
+        _chunkBytes.reset();
+
+        _chunk.writeByte(chunk.getMinX() - (chunk.getChunkX() << 4));
+        _chunk.writeShort(chunk.getMinY());
+        _chunk.writeByte(chunk.getMinZ() - (chunk.getChunkZ() << 4));
+        _chunk.writeShort(chunk.getSizeX());
+        _chunk.writeShort(chunk.getSizeY());
+        _chunk.writeShort(chunk.getSizeZ());
+
+        _codec.write(_chunk, chunk.getStates());
+        _chunk.flush();
+
+        byte[] data = _chunkBytes.toByteArray();
+        byte[] hash = ChunkStore.hash(data);
+
+        if (_store.put(hash, data))
+            _stored++;
+
+        _entries.writeInt(chunk.getChunkX());
+        _entries.writeInt(chunk.getChunkZ());
+        _entries.write(hash);
+        _written++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (_isClosed)
+            return;
+
+        _isClosed = true;
+
+        File temp = new File(_manifest.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp), 8192))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(_written);
+
+            _entries.flush();
+            _entryBytes.writeTo(out);
+        }
+
+        Files.move(temp.toPath(), _manifest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void abort() {
+        _isClosed = true;
+
+        // stored chunks that are not referenced are removed by garbage collection
+        _entryBytes.reset();
+    }
+}
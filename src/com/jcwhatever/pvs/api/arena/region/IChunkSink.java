@@ -0,0 +1,59 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import java.io.IOException;
+
+/**
+ * A destination for chunk block data captured while saving a region.
+ *
+ * <p>Methods are invoked from a single worker thread in the order
+ * the chunks are captured.</p>
+ */
+public interface IChunkSink {
+
+    /**
+     * Encode and write a captured chunk.
+     *
+     * @param chunk  The chunk block data.
+     *
+     * @throws IOException if the chunk cannot be written.
+     */
+    void writeChunk(ChunkBlocks chunk) throws IOException;
+
+    /**
+     * Invoked after all chunks are written.
+     *
+     * @throws IOException if the data cannot be finalized.
+     */
+    void close() throws IOException;
+
+    /**
+     * Invoked instead of {@link #close} when the save fails or is
+     * cancelled. Partially written data should be discarded.
+     */
+    void abort();
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import java.io.IOException;
+
+/**
+ * A source of saved chunk block data used to restore a region.
+ *
+ * <p>{@link #readChunk} is invoked from worker threads and must be thread safe.</p>
+ */
+public interface IChunkSource {
+
+    /**
+     * Get the number of saved chunks.
+     */
+    int getChunkCount();
+
+    /**
+     * Read and decode a saved chunk.
+     *
+     * @param index  The index of the chunk.
+     *
+     * @throws IOException if the chunk cannot be read.
+     */
+    ChunkBlocks readChunk(int index) throws IOException;
+
+    /**
+     * Release resources held by the source.
+     *
+     * @throws IOException if the source cannot be closed.
+     */
+    void close() throws IOException;
+}
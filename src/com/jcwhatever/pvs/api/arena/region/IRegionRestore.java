@@ -0,0 +1,57 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+/**
+ * A region restore whose blocks are applied on the main thread in steps.
+ *
+ * <p>Implemented by restores that can be run under the shared block budget
+ * of a {@link RestoreCoordinator}.</p>
+ */
+public interface IRegionRestore {
+
+    /**
+     * Apply blocks on the main thread.
+     *
+     * @param maxBlocks  The max number of blocks to apply.
+     * @param maxNanos   The max time to spend in nanoseconds.
+     *
+     * @return  The number of blocks applied.
+     */
+    int step(int maxBlocks, long maxNanos);
+
+    /**
+     * Determine if the restore is finished, failed or cancelled.
+     */
+    boolean isDone();
+
+    /**
+     * Cancel the restore.
+     *
+     * <p>Blocks that are already applied are not reverted.</p>
+     */
+    void cancel();
+}
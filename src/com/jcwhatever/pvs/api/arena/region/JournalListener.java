@@ -0,0 +1,349 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.pvs.api.PVStarAPI;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.Event.Result;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockDispenseEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockRedstoneEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.material.Directional;
+import org.bukkit.material.MaterialData;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A single Bukkit listener shared by all recording {@link BlockChangeJournal}'s.
+ *
+ * <p>Block change events are dispatched to each recording journal, which
+ * ignores blocks outside of its region. The listener is registered while
+ * at least one journal is recording.</p>
+ */
+final class JournalListener implements Listener {
+
+    // blocks changed by right clicking, besides doors
+    private static final Set<Material> TOGGLED_TYPES = EnumSet.of(
+            Material.TRAP_DOOR, Material.IRON_TRAPDOOR,
+            Material.FENCE_GATE, Material.SPRUCE_FENCE_GATE, Material.BIRCH_FENCE_GATE,
+            Material.JUNGLE_FENCE_GATE, Material.DARK_OAK_FENCE_GATE, Material.ACACIA_FENCE_GATE,
+            Material.LEVER, Material.STONE_BUTTON, Material.WOOD_BUTTON,
+            Material.DIODE_BLOCK_OFF, Material.DIODE_BLOCK_ON,
+            Material.REDSTONE_COMPARATOR_OFF, Material.REDSTONE_COMPARATOR_ON,
+            Material.DAYLIGHT_DETECTOR, Material.DAYLIGHT_DETECTOR_INVERTED,
+            Material.CAKE_BLOCK, Material.REDSTONE_ORE);
+
+    private static final Set<Material> DOOR_TYPES = EnumSet.of(
+            Material.WOODEN_DOOR, Material.SPRUCE_DOOR, Material.BIRCH_DOOR,
+            Material.JUNGLE_DOOR, Material.ACACIA_DOOR, Material.DARK_OAK_DOOR);
+
+    private static final Set<Material> HOE_TYPES = EnumSet.of(
+            Material.WOOD_HOE, Material.STONE_HOE, Material.IRON_HOE,
+            Material.GOLD_HOE, Material.DIAMOND_HOE);
+
+    private static final JournalListener _instance = new JournalListener();
+
+    // copied on write so journals can stop recording while an event is dispatched
+    private static BlockChangeJournal[] _journals = new BlockChangeJournal[0];
+
+    private JournalListener() {}
+
+    /**
+     * Add a journal that is recording.
+     *
+     * @param journal  The journal.
+     */
+    static void add(BlockChangeJournal journal) {
+        for (BlockChangeJournal current : _journals) {
+            if (current == journal)
+                return;
+        }
+
+        _journals = Arrays.copyOf(_journals, _journals.length + 1);
+        _journals[_journals.length - 1] = journal;
+
+        if (_journals.length == 1)
+            Bukkit.getPluginManager().registerEvents(_instance, PVStarAPI.getPlugin());
+    }
+
+    /**
+     * Remove a journal that stopped recording.
+     *
+     * @param journal  The journal.
+     */
+    static void remove(BlockChangeJournal journal) {
+        BlockChangeJournal[] journals = _journals;
+
+        for (int i = 0; i < journals.length; i++) {
+            if (journals[i] != journal)
+                continue;
+
+            BlockChangeJournal[] result = new BlockChangeJournal[journals.length - 1];
+            System.arraycopy(journals, 0, result, 0, i);
+            System.arraycopy(journals, i + 1, result, i, result.length - i);
+            _journals = result;
+
+            if (result.length == 0)
+                HandlerList.unregisterAll(_instance);
+
+            return;
+        }
+    }
+
+    private static void record(Block block) {
+        for (BlockChangeJournal journal : _journals) {
+            journal.record(block);
+        }
+    }
+
+    private static void record(BlockState state) {
+        for (BlockChangeJournal journal : _journals) {
+            journal.record(state);
+        }
+    }
+
+    private static void record(Block block, BlockFace face) {
+        record(block);
+        record(block.getRelative(face));
+    }
+
+    private static void record(List<Block> blocks, BlockFace face) {
+        for (Block block : blocks) {
+            record(block, face);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockBreak(BlockBreakEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockPlace(BlockPlaceEvent event) {
+
+        if (event instanceof BlockMultiPlaceEvent) {
+            for (BlockState state : ((BlockMultiPlaceEvent) event).getReplacedBlockStates()) {
+                record(state);
+            }
+        }
+        else {
+            // the block is already placed, record the replaced state
+            record(event.getBlockReplacedState());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockBurn(BlockBurnEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockIgnite(BlockIgniteEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockFade(BlockFadeEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockGrow(BlockGrowEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockForm(BlockFormEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockSpread(BlockSpreadEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onLeavesDecay(LeavesDecayEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockFlow(BlockFromToEvent event) {
+        record(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onPistonExtend(BlockPistonExtendEvent event) {
+        // piston head
+        record(event.getBlock().getRelative(event.getDirection()));
+        record(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onPistonRetract(BlockPistonRetractEvent event) {
+        // record both sides, direction differs between server versions
+        record(event.getBlock().getRelative(event.getDirection()));
+        record(event.getBlock().getRelative(event.getDirection().getOppositeFace()));
+        record(event.getBlocks(), event.getDirection());
+        record(event.getBlocks(), event.getDirection().getOppositeFace());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            record(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onBlockRedstone(BlockRedstoneEvent event) {
+        // powered doors, trapdoors, fence gates and lamps
+        record(event.getBlock());
+        record(event.getBlock().getRelative(BlockFace.UP));
+        record(event.getBlock().getRelative(BlockFace.DOWN));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockExplode(BlockExplodeEvent event) {
+        record(event.getBlock());
+
+        for (Block block : event.blockList()) {
+            record(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBlockDispense(BlockDispenseEvent event) {
+        // water, lava and fire are placed in front of the dispenser
+        MaterialData data = event.getBlock().getState().getData();
+        if (data instanceof Directional)
+            record(event.getBlock().getRelative(((Directional) data).getFacing()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerInteract(PlayerInteractEvent event) {
+
+        if (!event.hasBlock() || event.useInteractedBlock() == Result.DENY)
+            return;
+
+        Block block = event.getClickedBlock();
+        Material type = block.getType();
+
+        switch (event.getAction()) {
+            case LEFT_CLICK_BLOCK:
+                Block face = block.getRelative(event.getBlockFace());
+                if (face.getType() == Material.FIRE)
+                    record(face);
+
+                if (type == Material.REDSTONE_ORE)
+                    record(block);
+                break;
+
+            case RIGHT_CLICK_BLOCK:
+                if (DOOR_TYPES.contains(type)) {
+                    // the other half of the door is above or below
+                    record(block);
+                    record(block.getRelative(BlockFace.UP));
+                    record(block.getRelative(BlockFace.DOWN));
+                }
+                else if (TOGGLED_TYPES.contains(type)) {
+                    record(block);
+                }
+                else if ((type == Material.DIRT || type == Material.GRASS) &&
+                        event.hasItem() && HOE_TYPES.contains(event.getItem().getType())) {
+                    // tilled into farmland
+                    record(block);
+                }
+                break;
+
+            case PHYSICAL:
+                if (type == Material.SOIL) {
+                    // trampled farmland breaks the crop above
+                    record(block);
+                    record(block.getRelative(BlockFace.UP));
+                }
+                else if (type == Material.TRIPWIRE || type == Material.REDSTONE_ORE) {
+                    record(block);
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        record(event.getBlockClicked(), event.getBlockFace());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBucketFill(PlayerBucketFillEvent event) {
+        record(event.getBlockClicked(), event.getBlockFace());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onStructureGrow(StructureGrowEvent event) {
+        for (BlockState state : event.getBlocks()) {
+            record(state.getBlock());
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.Nucleus;
+import com.jcwhatever.nucleus.managed.scheduler.IScheduledTask;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.observer.future.FutureResultAgent;
+import com.jcwhatever.nucleus.utils.observer.future.IFutureResult;
+import com.jcwhatever.pvs.api.PVStarAPI;
+
+import javax.annotation.Nullable;
+
+/**
+ * Restores the blocks recorded in a {@link BlockChangeJournal}.
+ *
+ * <p>Recorded blocks are applied on the main thread under a per tick block
+ * and time budget. The journal is discarded when all blocks are restored.</p>
+ */
+public class JournalRestoreEngine implements IRegionRestore {
+
+    // number of blocks restored between time budget checks
+    private static final int BLOCK_SLICE = 256;
+
+    private final BlockChangeJournal _journal;
+    private final int _totalBlocks;
+    private final FutureResultAgent<JournalRestoreEngine> _agent = new FutureResultAgent<>();
+
+    private int _maxBlocksPerTick = RegionRestoreEngine.DEFAULT_BLOCKS_PER_TICK;
+    private long _maxNanosPerTick = RegionRestoreEngine.DEFAULT_NANOS_PER_TICK;
+    private int _appliedBlocks;
+    private boolean _isStarted;
+    private boolean _isDone;
+    private String _failure;
+    private IScheduledTask _task;
+    private Runnable _onDone;
+
+    /**
+     * Constructor.
+     *
+     * @param journal  The journal to restore.
+     *
+     * @throws IllegalArgumentException if the journal is not valid.
+     */
+    public JournalRestoreEngine(BlockChangeJournal journal) {
+        PreCon.notNull(journal);
+        PreCon.isValid(journal.isValid(), "Block change journal is not valid.");
+
+        _journal = journal;
+        _totalBlocks = journal.size();
+    }
+
+    /**
+     * Get the journal being restored.
+     */
+    public BlockChangeJournal getJournal() {
+        return _journal;
+    }
+
+    /**
+     * Set the max number of blocks restored per tick when the
+     * engine schedules itself.
+     *
+     * @param blocks  The number of blocks.
+     */
+    public void setMaxBlocksPerTick(int blocks) {
+        PreCon.greaterThanZero(blocks);
+
+        _maxBlocksPerTick = blocks;
+    }
+
+    /**
+     * Set the max time in nanoseconds spent restoring blocks per tick
+     * when the engine schedules itself.
+     *
+     * @param nanos  The time in nanoseconds.
+     */
+    public void setMaxNanosPerTick(long nanos) {
+        PreCon.greaterThanZero(nanos);
+
+        _maxNanosPerTick = nanos;
+    }
+
+    /**
+     * Set a task to run on the main thread when the engine finishes,
+     * fails or is cancelled.
+     *
+     * @param onDone  The task.
+     */
+    public void setOnDone(@Nullable Runnable onDone) {
+        _onDone = onDone;
+    }
+
+    /**
+     * Get the total number of blocks to restore.
+     */
+    public int getTotalBlocks() {
+        return _totalBlocks;
+    }
+
+    /**
+     * Get the number of blocks restored.
+     */
+    public int getAppliedBlocks() {
+        return _appliedBlocks;
+    }
+
+    /**
+     * Get the restore progress from 0.0 to 1.0.
+     */
+    public double getProgress() {
+        return _totalBlocks == 0 ? 1.0D : (double) _appliedBlocks / _totalBlocks;
+    }
+
+    /**
+     * Determine if the engine is finished, failed or cancelled.
+     */
+    @Override
+    public boolean isDone() {
+        return _isDone;
+    }
+
+    /**
+     * Determine if the engine finished successfully.
+     */
+    public boolean isSuccess() {
+        return _isDone && _failure == null;
+    }
+
+    /**
+     * Get the reason the engine failed or was cancelled.
+     *
+     * @return  The reason or null if the engine is not done or finished successfully.
+     */
+    @Nullable
+    public String getFailure() {
+        return _failure;
+    }
+
+    /**
+     * Start the restore.
+     *
+     * <p>The first batch of blocks is restored immediately so small journals
+     * complete in the current tick.</p>
+     *
+     * @param isScheduled  True to restore blocks every tick using the engines own budget,
+     *                     false if {@link #step} is invoked by a coordinator.
+     *
+     * @return  A future that completes when all blocks are restored.
+     */
+    public IFutureResult<JournalRestoreEngine> start(boolean isScheduled) {
+        PreCon.isValid(!_isStarted, "Restore engine can only be started once.");
+
+        _isStarted = true;
+
+        step(_maxBlocksPerTick, _maxNanosPerTick);
+
+        if (isScheduled && !_isDone) {
+            _task = Nucleus.getScheduler().runTaskRepeat(PVStarAPI.getPlugin(), 1, 1, new Runnable() {
+                @Override
+                public void run() {
+                    step(_maxBlocksPerTick, _maxNanosPerTick);
+                }
+            });
+        }
+
+        return _agent.getFuture();
+    }
+
+    /**
+     * Restore recorded blocks on the main thread.
+     *
+     * @param maxBlocks  The max number of blocks to restore.
+     * @param maxNanos   The max time to spend in nanoseconds.
+     *
+     * @return  The number of blocks restored.
+     */
+    @Override
+    public int step(int maxBlocks, long maxNanos) {
+        if (_isDone || !_isStarted)
+            return 0;
+
+        long start = System.nanoTime();
+        int applied = 0;
+
+        while (applied < maxBlocks && _journal.isValid()) {
+
+            applied += _journal.restore(Math.min(BLOCK_SLICE, maxBlocks - applied));
+
+            if (System.nanoTime() - start >= maxNanos)
+                break;
+        }
+
+        _appliedBlocks += applied;
+
+        // the journal discards itself after the last block is restored
+        if (!_journal.isValid()) {
+            if (_appliedBlocks >= _totalBlocks) {
+                done(null);
+                _agent.success(this);
+            }
+            else {
+                done("Block change journal was cleared during restore.");
+                _agent.error(this, _failure);
+            }
+        }
+
+        return applied;
+    }
+
+    /**
+     * Cancel the restore.
+     *
+     * <p>Blocks that are already restored are not reverted. The remaining
+     * recorded changes are discarded.</p>
+     */
+    @Override
+    public void cancel() {
+        if (_isDone)
+            return;
+
+        _journal.clear();
+
+        done("Journal restore cancelled.");
+        _agent.cancel(this, _failure);
+    }
+
+    /*
+     * Stop the engine. The onDone task is run before the future is
+     * completed so the region is idle when the future handlers run.
+     */
+    private void done(@Nullable String failure) {
+        _isDone = true;
+        _failure = failure;
+
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+
+        if (_onDone != null)
+            _onDone.run();
+    }
+}
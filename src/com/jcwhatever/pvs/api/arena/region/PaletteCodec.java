@@ -0,0 +1,175 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes block states as a palette of distinct states followed by
+ * runs of palette indexes.
+ *
+ * <p>An instance holds scratch state for encoding and is not thread safe.
+ * Decoding is static and thread safe.</p>
+ */
+final class PaletteCodec {
+
+    private final Map<Integer, Integer> _palette = new HashMap<>(64);
+    private int[] _runs = new int[128];
+
+    /**
+     * Encode block states.
+     *
+     * @param out     The output stream.
+     * @param states  The block states.
+     *
+     * @throws IOException if the output stream throws an exception.
+     */
+    void write(DataOutputStream out, int[] states) throws IOException {
+
+        // runs of equal states, stored as state then length
+        int totalRuns = 0;
+
+        _palette.clear();
+
+        for (int i = 0; i < states.length; ) {
+            int state = states[i];
+            int end = i + 1;
+            while (end < states.length && states[end] == state)
+                end++;
+
+            if (totalRuns * 2 == _runs.length) {
+                int[] grown = new int[_runs.length * 2];
+                System.arraycopy(_runs, 0, grown, 0, _runs.length);
+                _runs = grown;
+            }
+
+            _runs[totalRuns * 2] = state;
+            _runs[totalRuns * 2 + 1] = end - i;
+            totalRuns++;
+
+            if (!_palette.containsKey(state))
+                _palette.put(state, _palette.size());
+
+            i = end;
+        }
+
+        int[] palette = new int[_palette.size()];
+        for (Map.Entry<Integer, Integer> entry : _palette.entrySet())
+            palette[entry.getValue()] = entry.getKey();
+
+        writeVarInt(out, palette.length);
+        for (int state : palette)
+            writeVarInt(out, state);
+
+        writeVarInt(out, totalRuns);
+        for (int i = 0; i < totalRuns; i++) {
+            writeVarInt(out, _palette.get(_runs[i * 2]));
+            writeVarInt(out, _runs[i * 2 + 1]);
+        }
+    }
+
+    /**
+     * Decode block states.
+     *
+     * @param buffer  The buffer positioned at the encoded states.
+     * @param size    The expected number of block states.
+     *
+     * @return  The block states.
+     *
+     * @throws IOException if the encoded states are malformed.
+     */
+    static int[] read(ByteBuffer buffer, int size) throws IOException {
+
+        // each palette entry and run is at least one byte
+        int[] palette = new int[readCount(buffer, Math.min(size, buffer.remaining()))];
+        for (int i = 0; i < palette.length; i++)
+            palette[i] = readVarInt(buffer);
+
+        int[] states = new int[size];
+        int totalRuns = readCount(buffer, size);
+        int position = 0;
+
+        for (int i = 0; i < totalRuns; i++) {
+            int paletteIndex = readVarInt(buffer);
+            int length = readVarInt(buffer);
+
+            if (paletteIndex < 0 || paletteIndex >= palette.length ||
+                    length < 0 || length > states.length - position) {
+                throw new IOException("Malformed block palette.");
+            }
+
+            int state = palette[paletteIndex];
+            for (int end = position + length; position < end; position++)
+                states[position] = state;
+        }
+
+        if (position != states.length)
+            throw new IOException("Malformed block palette.");
+
+        return states;
+    }
+
+    /*
+     * Read a count and check it is within range before it is used
+     * to allocate an array.
+     */
+    private static int readCount(ByteBuffer buffer, int max) throws IOException {
+        int count = readVarInt(buffer);
+        if (count < 0 || count > max)
+            throw new IOException("Malformed block palette.");
+
+        return count;
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+
+        do {
+            if (shift > 28)
+                throw new IOException("Malformed block palette.");
+
+            b = buffer.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+}
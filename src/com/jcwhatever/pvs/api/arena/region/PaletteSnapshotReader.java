@@ -0,0 +1,185 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a region snapshot written by {@link PaletteSnapshotWriter}.
+ *
+ * <p>The file is kept open and chunks are read and decoded one at a time
+ * when requested, so the snapshot is never fully loaded onto the heap.</p>
+ *
+ * <p>{@link #readChunk} is thread safe.</p>
+ */
+public class PaletteSnapshotReader implements IChunkSource {
+
+    // magic, version and chunk count
+    private static final int HEADER_SIZE = 12;
+
+    // chunk offset and length
+    private static final int INDEX_ENTRY_SIZE = 12;
+
+    private final File _file;
+    private final RandomAccessFile _input;
+    private final FileChannel _channel;
+    private final long[] _offsets;
+    private final int[] _lengths;
+
+    private volatile boolean _isClosed;
+
+    /**
+     * Constructor.
+     *
+     * @param file  The snapshot file.
+     *
+     * @throws IOException if the file cannot be opened or is not a snapshot.
+     */
+    public PaletteSnapshotReader(File file) throws IOException {
+        PreCon.notNull(file);
+
+        _file = file;
+        _input = new RandomAccessFile(file, "r");
+        _channel = _input.getChannel();
+
+        try {
+            long size = _channel.size();
+
+            ByteBuffer header = read(0, HEADER_SIZE);
+
+            if (header.getInt() != PaletteSnapshotWriter.MAGIC)
+                throw new IOException("File is not a region snapshot: " + file.getName());
+
+            int version = header.getInt();
+            if (version != PaletteSnapshotWriter.VERSION)
+                throw new IOException("Unsupported region snapshot version: " + version);
+
+            int count = header.getInt();
+            if (count < 0 || count > (size - HEADER_SIZE) / INDEX_ENTRY_SIZE ||
+                    count > Integer.MAX_VALUE / INDEX_ENTRY_SIZE) {
+                throw new IOException("Malformed region snapshot: " + file.getName());
+            }
+
+            ByteBuffer index = read(HEADER_SIZE, count * INDEX_ENTRY_SIZE);
+
+            _offsets = new long[count];
+            _lengths = new int[count];
+
+            for (int i = 0; i < count; i++) {
+                _offsets[i] = index.getLong();
+                _lengths[i] = index.getInt();
+
+                if (_offsets[i] < 0 || _lengths[i] < 0 || _offsets[i] + _lengths[i] > size)
+                    throw new IOException("Malformed region snapshot: " + file.getName());
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            _input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the snapshot file.
+     */
+    public File getFile() {
+        return _file;
+    }
+
+    @Override
+    public int getChunkCount() {
+        return _offsets.length;
+    }
+
+    @Override
+    public ChunkBlocks readChunk(int index) throws IOException {
+        PreCon.positiveNumber(index);
+        PreCon.isValid(index < _offsets.length, "Chunk index out of range.");
+
+        if (_isClosed)
+            throw new IOException("Snapshot reader is closed.");
+
+        ByteBuffer buffer = read(_offsets[index], _lengths[index]);
+
+        try {
+            int chunkX = buffer.getInt();
+            int chunkZ = buffer.getInt();
+            int minX = buffer.getInt();
+            int minY = buffer.getShort();
+            int minZ = buffer.getInt();
+            int sizeX = buffer.getShort();
+            int sizeY = buffer.getShort();
+            int sizeZ = buffer.getShort();
+
+            if (!ChunkBlocks.isValidSize(sizeX, sizeY, sizeZ))
+                throw new IOException("Invalid chunk size.");
+
+            int[] states = PaletteCodec.read(buffer, sizeX * sizeY * sizeZ);
+
+            return new ChunkBlocks(chunkX, chunkZ, minX, minY, minZ, sizeX, sizeY, sizeZ, states);
+        }
+        catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Malformed chunk in region snapshot: " + _file.getName(), e);
+        }
+    }
+
+    /**
+     * Close the reader and release the snapshot file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (_isClosed)
+            return;
+
+        _isClosed = true;
+        _input.close();
+    }
+
+    /*
+     * Read bytes at a file position into a new heap buffer. Positional reads
+     * do not change the channel position, so chunks can be read concurrently.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            int read = _channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new EOFException("Unexpected end of region snapshot: " + _file.getName());
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import com.jcwhatever.pvs.api.arena.IArena;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+
+/**
+ * Writes a palette compressed region snapshot.
+ *
+ * <p>The file starts with a header containing a table of chunk offsets so
+ * a {@link PaletteSnapshotReader} can decode any chunk without reading the
+ * chunks before it. Each chunk is stored as a palette of distinct block states
+ * followed by runs of palette indexes.</p>
+ *
+ * <p>The snapshot is written to a temporary file which replaces the
+ * snapshot file when the writer is closed.</p>
+ */
+public class PaletteSnapshotWriter implements IChunkSink {
+
+    /**
+     * The snapshot file extension.
+     */
+    public static final String FILE_EXTENSION = ".pal";
+
+    static final int MAGIC = 0x50565250; // PVRP
+    static final int VERSION = 1;
+
+    // magic, version and chunk count
+    static final int HEADER_SIZE = 12;
+
+    // chunk offset and length
+    static final int TABLE_ENTRY_SIZE = 12;
+
+    /**
+     * Get the name of an arenas snapshot file.
+     *
+     * @param arena  The arena.
+     */
+    public static String getFileName(IArena arena) {
+        PreCon.notNull(arena);
+
+        return "arena." + arena.getId() + FILE_EXTENSION;
+    }
+
+    private final File _file;
+    private final File _temp;
+    private final RandomAccessFile _output;
+    private final FileChannel _channel;
+    private final long[] _offsets;
+    private final int[] _lengths;
+    private final ByteArrayOutputStream _bytes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream _out = new DataOutputStream(_bytes);
+    private final PaletteCodec _codec = new PaletteCodec();
+
+    private long _position;
+    private int _written;
+    private boolean _isClosed;
+
+    /**
+     * Constructor.
+     *
+     * @param file        The snapshot file.
+     * @param chunkCount  The max number of chunks that will be written.
+     *
+     * @throws IOException if the temporary file cannot be created.
+     */
+    public PaletteSnapshotWriter(File file, int chunkCount) throws IOException {
+        PreCon.notNull(file);
+        PreCon.positiveNumber(chunkCount);
+
+        _file = file;
+        _temp = new File(file.getPath() + ".tmp");
+        _output = new RandomAccessFile(_temp, "rw");
+        _output.setLength(0);
+        _channel = _output.getChannel();
+        _offsets = new long[chunkCount];
+        _lengths = new int[chunkCount];
+        _position = HEADER_SIZE + (long) chunkCount * TABLE_ENTRY_SIZE;
+    }
+
+    /**
+     * Get the number of chunks written.
+     */
+    public int getWrittenChunks() {
+        return _written;
+    }
+
+    @Override
+    public void writeChunk(ChunkBlocks chunk) throws IOException {
+        PreCon.notNull(chunk);
+
+        if (_isClosed)
+            throw new IOException("Snapshot writer is closed.");
+
+        if (_written == _offsets.length)
+            throw new IOException("More chunks written than expected.");
+
+        byte[] bytes = encode(chunk);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long position = _position;
+        while (buffer.hasRemaining())
+            position += _channel.write(buffer, position);
+
+        _offsets[_written] = _position;
+        _lengths[_written] = bytes.length;
+        _written++;
+        _position = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (_isClosed)
+            return;
+
+        _isClosed = true;
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + _written * TABLE_ENTRY_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(_written);
+
+            for (int i = 0; i < _written; i++) {
+                header.putLong(_offsets[i]);
+                header.putInt(_lengths[i]);
+            }
+            header.flip();
+
+            long position = 0;
+            while (header.hasRemaining())
+                position += _channel.write(header, position);
+        }
+        finally {
+            _output.close();
+        }
+
+        Files.move(_temp.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void abort() {
+        _isClosed = true;
+
+        try {
+            _output.close();
+        }
+        catch (IOException e) {
+            PVStarAPI.getPlugin().getLogger().log(Level.WARNING,
+                    "Failed to close aborted snapshot file: " + _temp.getName(), e);
+        }
+
+        if (_temp.exists() && !_temp.delete())
+            _temp.deleteOnExit();
+    }
+
+    private byte[] encode(ChunkBlocks chunk) throws IOException {
+
+        _bytes.reset();
+
+        _out.writeInt(chunk.getChunkX());
+        _out.writeInt(chunk.getChunkZ());
+        _out.writeInt(chunk.getMinX());
+        _out.writeShort(chunk.getMinY());
+        _out.writeInt(chunk.getMinZ());
+        _out.writeShort(chunk.getSizeX());
+        _out.writeShort(chunk.getSizeY());
+        _out.writeShort(chunk.getSizeZ());
+
+        _codec.write(_out, chunk.getStates());
+        _out.flush();
+
+        return _bytes.toByteArray();
+    }
+}
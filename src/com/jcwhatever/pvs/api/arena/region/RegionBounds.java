@@ -0,0 +1,159 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.ArenaRegion;
+import org.bukkit.World;
+
+import javax.annotation.Nullable;
+
+/**
+ * The world name and block bounds of an arena region.
+ *
+ * <p>Used to look up regions of arenas that are not loaded.</p>
+ */
+public final class RegionBounds {
+
+    private final String _worldName;
+    private final int _minX;
+    private final int _minY;
+    private final int _minZ;
+    private final int _maxX;
+    private final int _maxY;
+    private final int _maxZ;
+
+    /**
+     * Get the bounds of a region.
+     *
+     * @param region  The region.
+     *
+     * @return  The bounds or null if the region is not defined or its world is not loaded.
+     */
+    @Nullable
+    public static RegionBounds of(ArenaRegion region) {
+        PreCon.notNull(region);
+
+        if (!region.isDefined())
+            return null;
+
+        World world = region.getWorld();
+        if (world == null)
+            return null;
+
+        return new RegionBounds(world.getName(),
+                region.getXStart(), region.getYStart(), region.getZStart(),
+                region.getXEnd(), region.getYEnd(), region.getZEnd());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param worldName  The name of the world the region is in.
+     * @param minX       The lowest block X coordinates.
+     * @param minY       The lowest block Y coordinates.
+     * @param minZ       The lowest block Z coordinates.
+     * @param maxX       The highest block X coordinates.
+     * @param maxY       The highest block Y coordinates.
+     * @param maxZ       The highest block Z coordinates.
+     */
+    public RegionBounds(String worldName,
+                        int minX, int minY, int minZ,
+                        int maxX, int maxY, int maxZ) {
+        PreCon.notNullOrEmpty(worldName);
+        PreCon.isValid(minX <= maxX && minY <= maxY && minZ <= maxZ, "Invalid region bounds.");
+
+        _worldName = worldName;
+        _minX = minX;
+        _minY = minY;
+        _minZ = minZ;
+        _maxX = maxX;
+        _maxY = maxY;
+        _maxZ = maxZ;
+    }
+
+    /**
+     * Get the name of the world the region is in.
+     */
+    public String getWorldName() {
+        return _worldName;
+    }
+
+    /**
+     * Get the lowest block X coordinates.
+     */
+    public int getMinX() {
+        return _minX;
+    }
+
+    /**
+     * Get the lowest block Y coordinates.
+     */
+    public int getMinY() {
+        return _minY;
+    }
+
+    /**
+     * Get the lowest block Z coordinates.
+     */
+    public int getMinZ() {
+        return _minZ;
+    }
+
+    /**
+     * Get the highest block X coordinates.
+     */
+    public int getMaxX() {
+        return _maxX;
+    }
+
+    /**
+     * Get the highest block Y coordinates.
+     */
+    public int getMaxY() {
+        return _maxY;
+    }
+
+    /**
+     * Get the highest block Z coordinates.
+     */
+    public int getMaxZ() {
+        return _maxZ;
+    }
+
+    /**
+     * Determine if a block location is inside the bounds.
+     *
+     * @param x  The block X coordinates.
+     * @param y  The block Y coordinates.
+     * @param z  The block Z coordinates.
+     */
+    public boolean contains(int x, int y, int z) {
+        return x >= _minX && x <= _maxX &&
+                y >= _minY && y <= _maxY &&
+                z >= _minZ && z <= _maxZ;
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.Nucleus;
+import com.jcwhatever.nucleus.managed.scheduler.IScheduledTask;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.observer.future.FutureResultAgent;
+import com.jcwhatever.nucleus.utils.observer.future.IFutureResult;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+
+/**
+ * Restores a region one chunk at a time.
+ *
+ * <p>Chunks are read and decoded from an {@link IChunkSource} on worker threads.
+ * Decoded blocks are applied on the main thread under a per tick block and
+ * time budget. Only a few decoded chunks are held in memory at a time.</p>
+ *
+ * <p>Block types and data values are restored. Blocks that already match the
+ * saved state are skipped.</p>
+ */
+public class RegionRestoreEngine implements IRegionRestore {
+
+    /**
+     * The default max number of blocks applied per tick.
+     */
+    public static final int DEFAULT_BLOCKS_PER_TICK = 20000;
+
+    /**
+     * The default max time in nanoseconds spent applying blocks per tick.
+     */
+    public static final long DEFAULT_NANOS_PER_TICK = 5000000L;
+
+    // max number of chunks decoded ahead of the main thread
+    private static final int MAX_DECODED_AHEAD = 8;
+
+    // number of blocks applied between time budget checks
+    private static final int BLOCK_SLICE = 256;
+
+    private final World _world;
+    private final IChunkSource _source;
+    private final int _totalChunks;
+    private final FutureResultAgent<RegionRestoreEngine> _agent = new FutureResultAgent<>();
+    private final Queue<ChunkBlocks> _decoded = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger _decoding = new AtomicInteger();
+    private final AtomicBoolean _isSourceClosed = new AtomicBoolean();
+
+    private volatile Throwable _error;
+
+    private int _maxBlocksPerTick = DEFAULT_BLOCKS_PER_TICK;
+    private long _maxNanosPerTick = DEFAULT_NANOS_PER_TICK;
+    private int _nextChunk;
+    private int _appliedChunks;
+    private long _appliedBlocks;
+    private ChunkBlocks _current;
+    private int _currentIndex;
+    private boolean _isStarted;
+    private volatile boolean _isDone;
+    private String _failure;
+    private IScheduledTask _task;
+    private Runnable _onDone;
+
+    /**
+     * Constructor.
+     *
+     * @param world   The world to restore blocks in.
+     * @param source  The saved chunk source.
+     */
+    public RegionRestoreEngine(World world, IChunkSource source) {
+        PreCon.notNull(world);
+        PreCon.notNull(source);
+
+        _world = world;
+        _source = source;
+        _totalChunks = source.getChunkCount();
+    }
+
+    /**
+     * Get the world blocks are restored in.
+     */
+    public World getWorld() {
+        return _world;
+    }
+
+    /**
+     * Set the max number of blocks applied per tick when the
+     * engine schedules itself.
+     *
+     * @param blocks  The number of blocks.
+     */
+    public void setMaxBlocksPerTick(int blocks) {
+        PreCon.greaterThanZero(blocks);
+
+        _maxBlocksPerTick = blocks;
+    }
+
+    /**
+     * Set the max time in nanoseconds spent applying blocks per tick
+     * when the engine schedules itself.
+     *
+     * @param nanos  The time in nanoseconds.
+     */
+    public void setMaxNanosPerTick(long nanos) {
+        PreCon.greaterThanZero(nanos);
+
+        _maxNanosPerTick = nanos;
+    }
+
+    /**
+     * Set a task to run on the main thread when the engine finishes,
+     * fails or is cancelled.
+     *
+     * @param onDone  The task.
+     */
+    public void setOnDone(@Nullable Runnable onDone) {
+        _onDone = onDone;
+    }
+
+    /**
+     * Get the total number of chunks to restore.
+     */
+    public int getTotalChunks() {
+        return _totalChunks;
+    }
+
+    /**
+     * Get the number of chunks fully applied.
+     */
+    public int getAppliedChunks() {
+        return _appliedChunks;
+    }
+
+    /**
+     * Get the number of blocks applied.
+     */
+    public long getAppliedBlocks() {
+        return _appliedBlocks;
+    }
+
+    /**
+     * Get the restore progress from 0.0 to 1.0.
+     */
+    public double getProgress() {
+        return _totalChunks == 0 ? 1.0D : (double) _appliedChunks / _totalChunks;
+    }
+
+    /**
+     * Determine if the engine is finished, failed or cancelled.
+     */
+    @Override
+    public boolean isDone() {
+        return _isDone;
+    }
+
+    /**
+     * Determine if the engine finished successfully.
+     */
+    public boolean isSuccess() {
+        return _isDone && _failure == null;
+    }
+
+    /**
+     * Get the reason the engine failed or was cancelled.
+     *
+     * @return  The reason or null if the engine is not done or finished successfully.
+     */
+    @Nullable
+    public String getFailure() {
+        return _failure;
+    }
+
+    /**
+     * Start the restore and apply blocks every tick using the
+     * engines own budget.
+     *
+     * @return  A future that completes when all chunks are restored.
+     */
+    public IFutureResult<RegionRestoreEngine> start() {
+        return start(true);
+    }
+
+    /**
+     * Start the restore.
+     *
+     * @param isScheduled  True to apply blocks every tick using the engines own budget,
+     *                     false if {@link #step} is invoked by a coordinator.
+     *
+     * @return  A future that completes when all chunks are restored.
+     */
+    public IFutureResult<RegionRestoreEngine> start(boolean isScheduled) {
+        PreCon.isValid(!_isStarted, "Restore engine can only be started once.");
+
+        _isStarted = true;
+
+        if (_totalChunks == 0) {
+            finish();
+            return _agent.getFuture();
+        }
+
+        decodeAhead();
+
+        if (isScheduled) {
+            _task = Nucleus.getScheduler().runTaskRepeat(PVStarAPI.getPlugin(), 1, 1, new Runnable() {
+                @Override
+                public void run() {
+                    step(_maxBlocksPerTick, _maxNanosPerTick);
+                }
+            });
+        }
+
+        return _agent.getFuture();
+    }
+
+    /**
+     * Apply decoded blocks on the main thread.
+     *
+     * @param maxBlocks  The max number of blocks to apply.
+     * @param maxNanos   The max time to spend in nanoseconds.
+     *
+     * @return  The number of blocks applied.
+     */
+    @Override
+    public int step(int maxBlocks, long maxNanos) {
+        if (_isDone || !_isStarted)
+            return 0;
+
+        if (_error != null) {
+            fail(_error);
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        int applied = 0;
+
+        while (applied < maxBlocks) {
+
+            if (_current == null) {
+                _current = _decoded.poll();
+                _currentIndex = 0;
+
+                // waiting on workers
+                if (_current == null)
+                    break;
+            }
+
+            int[] states = _current.getStates();
+            int end = Math.min(states.length,
+                    _currentIndex + Math.min(BLOCK_SLICE, maxBlocks - applied));
+
+            for (int i = _currentIndex; i < end; i++)
+                apply(_current, i, states[i]);
+
+            applied += end - _currentIndex;
+            _currentIndex = end;
+
+            if (_currentIndex == states.length) {
+                _current = null;
+                _appliedChunks++;
+                decodeAhead();
+            }
+
+            if (System.nanoTime() - start >= maxNanos)
+                break;
+        }
+
+        _appliedBlocks += applied;
+
+        if (_appliedChunks == _totalChunks)
+            finish();
+
+        return applied;
+    }
+
+    /**
+     * Cancel the restore.
+     *
+     * <p>Blocks that are already applied are not reverted.</p>
+     */
+    @Override
+    public void cancel() {
+        if (_isDone)
+            return;
+
+        done("Region restore cancelled.");
+        _agent.cancel(this, _failure);
+    }
+
+    private void apply(ChunkBlocks chunk, int index, int state) {
+
+        Block block = _world.getBlockAt(chunk.getX(index), chunk.getY(index), chunk.getZ(index));
+
+        int typeId = ChunkBlocks.getTypeId(state);
+        byte data = ChunkBlocks.getData(state);
+
+        if (block.getTypeId() != typeId || block.getData() != data)
+            block.setTypeIdAndData(typeId, data, false);
+    }
+
+    /*
+     * Submit decode jobs until enough chunks are decoded or being decoded.
+     */
+    private void decodeAhead() {
+        while (_nextChunk < _totalChunks &&
+                _decoding.get() + _decoded.size() < MAX_DECODED_AHEAD) {
+
+            final int index = _nextChunk++;
+            _decoding.incrementAndGet();
+
+            RegionWorkers.getPool().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!_isDone)
+                            _decoded.add(_source.readChunk(index));
+                    }
+                    catch (Throwable e) {
+                        _error = e;
+                    }
+                    finally {
+                        // the engine finished while the chunk was read
+                        if (_decoding.decrementAndGet() == 0 && _isDone)
+                            closeSource();
+                    }
+                }
+            });
+        }
+    }
+
+    private void finish() {
+        done(null);
+        _agent.success(this);
+    }
+
+    private void fail(Throwable error) {
+        done("Failed to restore region: " + error.getMessage());
+        _agent.error(this, _failure);
+    }
+
+    /*
+     * Stop the engine and release the source. The source is closed by the
+     * last running decode job if chunks are still being read. The onDone task
+     * is run before the future is completed so the region is idle when the
+     * future handlers run.
+     */
+    private void done(@Nullable String failure) {
+        _isDone = true;
+        _failure = failure;
+        _current = null;
+        _decoded.clear();
+
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+
+        if (_decoding.get() == 0)
+            closeSource();
+
+        if (_onDone != null)
+            _onDone.run();
+    }
+
+    /*
+     * Close the source once. Invoked from the main thread or a worker thread.
+     */
+    private void closeSource() {
+        if (!_isSourceClosed.compareAndSet(false, true))
+            return;
+
+        try {
+            _source.close();
+        }
+        catch (IOException e) {
+            PVStarAPI.getPlugin().getLogger().log(Level.WARNING,
+                    "Failed to close region restore source.", e);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.Nucleus;
+import com.jcwhatever.nucleus.managed.scheduler.IScheduledTask;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.observer.future.FutureResultAgent;
+import com.jcwhatever.nucleus.utils.observer.future.IFutureResult;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Saves a region one chunk at a time.
+ *
+ * <p>Chunk snapshots are captured on the main thread, a few per tick. Converting
+ * the snapshots to block states and writing them to an {@link IChunkSink} is done
+ * on a worker thread in the order the chunks are captured. Capturing pauses
+ * while too many snapshots are waiting for the worker.</p>
+ *
+ * <p>Block types and data values are saved.</p>
+ */
+public class RegionSaveEngine {
+
+    /**
+     * The default max number of chunk snapshots captured per tick.
+     */
+    public static final int DEFAULT_CHUNKS_PER_TICK = 4;
+
+    // max number of captured chunk snapshots waiting for the writer
+    private static final int MAX_CAPTURED_AHEAD = 16;
+
+    /**
+     * Get the number of chunks a region is saved in.
+     *
+     * @param minX  The lowest block X coordinates.
+     * @param minZ  The lowest block Z coordinates.
+     * @param maxX  The highest block X coordinates.
+     * @param maxZ  The highest block Z coordinates.
+     */
+    public static int getChunkCount(int minX, int minZ, int maxX, int maxZ) {
+        return ((maxX >> 4) - (minX >> 4) + 1) * ((maxZ >> 4) - (minZ >> 4) + 1);
+    }
+
+    private final World _world;
+    private final IChunkSink _sink;
+    private final int _minX;
+    private final int _minY;
+    private final int _minZ;
+    private final int _maxX;
+    private final int _maxY;
+    private final int _maxZ;
+    private final int _minChunkX;
+    private final int _minChunkZ;
+    private final int _chunksX;
+    private final int _totalChunks;
+    private final FutureResultAgent<RegionSaveEngine> _agent = new FutureResultAgent<>();
+    private final AtomicInteger _writtenChunks = new AtomicInteger();
+    private final AtomicInteger _capturedAhead = new AtomicInteger();
+
+    private volatile Throwable _error;
+    private volatile boolean _isWritten;
+    private volatile boolean _isDone;
+    private String _failure;
+
+    private int _chunksPerTick = DEFAULT_CHUNKS_PER_TICK;
+    private int _nextChunk;
+    private boolean _isStarted;
+    private ExecutorService _writer;
+    private IScheduledTask _task;
+    private Runnable _onDone;
+
+    /**
+     * Constructor.
+     *
+     * @param world  The world the region is in.
+     * @param minX   The lowest block X coordinates.
+     * @param minY   The lowest block Y coordinates.
+     * @param minZ   The lowest block Z coordinates.
+     * @param maxX   The highest block X coordinates.
+     * @param maxY   The highest block Y coordinates.
+     * @param maxZ   The highest block Z coordinates.
+     * @param sink   The destination of the captured chunks.
+     */
+    public RegionSaveEngine(World world,
+                            int minX, int minY, int minZ,
+                            int maxX, int maxY, int maxZ, IChunkSink sink) {
+        PreCon.notNull(world);
+        PreCon.notNull(sink);
+        PreCon.isValid(minX <= maxX && minY <= maxY && minZ <= maxZ, "Invalid region bounds.");
+
+        _world = world;
+        _sink = sink;
+        _minX = minX;
+        _minY = Math.max(0, minY);
+        _minZ = minZ;
+        _maxX = maxX;
+        _maxY = Math.min(world.getMaxHeight() - 1, maxY);
+        _maxZ = maxZ;
+
+        _minChunkX = minX >> 4;
+        _minChunkZ = minZ >> 4;
+        _chunksX = (maxX >> 4) - _minChunkX + 1;
+        _totalChunks = getChunkCount(minX, minZ, maxX, maxZ);
+    }
+
+    /**
+     * Set the max number of chunk snapshots captured per tick.
+     *
+     * @param chunks  The number of chunks.
+     */
+    public void setChunksPerTick(int chunks) {
+        PreCon.greaterThanZero(chunks);
+
+        _chunksPerTick = chunks;
+    }
+
+    /**
+     * Set a task to run on the main thread when the engine finishes,
+     * fails or is cancelled.
+     *
+     * @param onDone  The task.
+     */
+    public void setOnDone(@Nullable Runnable onDone) {
+        _onDone = onDone;
+    }
+
+    /**
+     * Get the total number of chunks to save.
+     */
+    public int getTotalChunks() {
+        return _totalChunks;
+    }
+
+    /**
+     * Get the number of chunks written to the sink.
+     */
+    public int getWrittenChunks() {
+        return _writtenChunks.get();
+    }
+
+    /**
+     * Get the save progress from 0.0 to 1.0.
+     */
+    public double getProgress() {
+        return (double) _writtenChunks.get() / _totalChunks;
+    }
+
+    /**
+     * Determine if the engine is finished, failed or cancelled.
+     */
+    public boolean isDone() {
+        return _isDone;
+    }
+
+    /**
+     * Determine if the engine finished successfully.
+     */
+    public boolean isSuccess() {
+        return _isDone && _failure == null;
+    }
+
+    /**
+     * Get the reason the engine failed or was cancelled.
+     *
+     * @return  The reason or null if the engine is not done or finished successfully.
+     */
+    @Nullable
+    public String getFailure() {
+        return _failure;
+    }
+
+    /**
+     * Start the save.
+     *
+     * @return  A future that completes when all chunks are written.
+     */
+    public IFutureResult<RegionSaveEngine> start() {
+        PreCon.isValid(!_isStarted, "Save engine can only be started once.");
+
+        _isStarted = true;
+        _writer = RegionWorkers.newSerialExecutor();
+
+        _task = Nucleus.getScheduler().runTaskRepeat(PVStarAPI.getPlugin(), 1, 1, new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        });
+
+        return _agent.getFuture();
+    }
+
+    /**
+     * Cancel the save.
+     *
+     * <p>The sink is aborted without writing the remaining chunks.</p>
+     */
+    public void cancel() {
+        if (_isDone)
+            return;
+
+        done("Region save cancelled.");
+        _agent.cancel(this, _failure);
+    }
+
+    private void tick() {
+
+        if (_error != null) {
+            done("Failed to save region: " + _error.getMessage());
+            _agent.error(this, _failure);
+            return;
+        }
+
+        if (_isWritten) {
+            done(null);
+            _agent.success(this);
+            return;
+        }
+
+        if (_nextChunk == _totalChunks)
+            return;
+
+        // stop capturing while the writer is behind, snapshots are held in memory
+        int capacity = MAX_CAPTURED_AHEAD - _capturedAhead.get();
+        int end = Math.min(_totalChunks, _nextChunk + Math.min(_chunksPerTick, capacity));
+
+        for (; _nextChunk < end; _nextChunk++) {
+
+            final int chunkX = _minChunkX + (_nextChunk % _chunksX);
+            final int chunkZ = _minChunkZ + (_nextChunk / _chunksX);
+            final ChunkSnapshot snapshot = _world.getChunkAt(chunkX, chunkZ).getChunkSnapshot();
+
+            _capturedAhead.incrementAndGet();
+
+            _writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (_error != null || _isDone)
+                            return;
+
+                        _sink.writeChunk(toBlocks(chunkX, chunkZ, snapshot));
+                        _writtenChunks.incrementAndGet();
+                    }
+                    catch (Throwable e) {
+                        _error = e;
+                    }
+                    finally {
+                        _capturedAhead.decrementAndGet();
+                    }
+                }
+            });
+        }
+
+        if (_nextChunk == _totalChunks) {
+            _writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (_error != null || _isDone)
+                        return;
+
+                    try {
+                        _sink.close();
+                        _isWritten = true;
+                    }
+                    catch (Throwable e) {
+                        _error = e;
+                    }
+                }
+            });
+        }
+    }
+
+    /*
+     * Convert the part of a chunk snapshot that is inside the region
+     * to block states. Invoked from the writer thread.
+     */
+    private ChunkBlocks toBlocks(int chunkX, int chunkZ, ChunkSnapshot snapshot) {
+
+        int baseX = chunkX << 4;
+        int baseZ = chunkZ << 4;
+        int minX = Math.max(_minX, baseX);
+        int minZ = Math.max(_minZ, baseZ);
+        int maxX = Math.min(_maxX, baseX + 15);
+        int maxZ = Math.min(_maxZ, baseZ + 15);
+
+        ChunkBlocks blocks = new ChunkBlocks(chunkX, chunkZ, minX, _minY, minZ,
+                maxX - minX + 1, _maxY - _minY + 1, maxZ - minZ + 1);
+
+        int[] states = blocks.getStates();
+        int index = 0;
+
+        for (int y = _minY; y <= _maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    states[index++] = ChunkBlocks.toState(
+                            snapshot.getBlockTypeId(x - baseX, y, z - baseZ),
+                            snapshot.getBlockData(x - baseX, y, z - baseZ));
+                }
+            }
+        }
+
+        return blocks;
+    }
+
+    private void done(@Nullable String failure) {
+        _failure = failure;
+        _isDone = true;
+
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+
+        if (_writer != null && !_isWritten) {
+            // abort from the writer thread after any write in progress
+            _writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    _sink.abort();
+                }
+            });
+        }
+
+        if (_writer != null)
+            _writer.shutdown();
+
+        if (_onDone != null)
+            _onDone.run();
+    }
+}
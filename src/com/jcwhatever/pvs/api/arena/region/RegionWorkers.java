@@ -0,0 +1,87 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker threads used to read, decode and write region data off of
+ * the main thread.
+ */
+public final class RegionWorkers {
+
+    private RegionWorkers() {}
+
+    private static final AtomicInteger _threadCount = new AtomicInteger();
+    private static ExecutorService _pool;
+
+    /**
+     * Get the shared worker pool.
+     */
+    public static synchronized ExecutorService getPool() {
+        if (_pool == null || _pool.isShutdown()) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            _pool = Executors.newFixedThreadPool(threads, THREAD_FACTORY);
+        }
+        return _pool;
+    }
+
+    /**
+     * Create a new single thread executor that runs tasks
+     * in the order they are submitted.
+     *
+     * <p>The executor should be shutdown when no longer needed.</p>
+     */
+    public static ExecutorService newSerialExecutor() {
+        return Executors.newSingleThreadExecutor(THREAD_FACTORY);
+    }
+
+    /**
+     * Shutdown the shared worker pool.
+     *
+     * <p>Invoked when PV-Star is disabled.</p>
+     */
+    public static synchronized void shutdown() {
+        if (_pool == null)
+            return;
+
+        _pool.shutdownNow();
+        _pool = null;
+    }
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PV-Star Region Worker " + _threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    };
+}
@@ -0,0 +1,366 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.arena.region;
+
+import com.jcwhatever.nucleus.Nucleus;
+import com.jcwhatever.nucleus.managed.scheduler.IScheduledTask;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.observer.future.IFutureResult;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import com.jcwhatever.pvs.api.arena.ArenaRegion;
+import com.jcwhatever.pvs.api.arena.IArena;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Runs chunked and journal region restores for all arenas under a single server wide
+ * per tick block budget.
+ *
+ * <p>Restores of arenas with players waiting in the lobby are applied first,
+ * then restores in the order they were queued. The block budget is reduced
+ * when the measured tick time is over the target and slowly increased while
+ * the server keeps up.</p>
+ *
+ * <p>The {@link com.jcwhatever.pvs.api.events.region.ArenaRegionPreRestoreEvent} is
+ * called when a restore is queued and the
+ * {@link com.jcwhatever.pvs.api.events.region.ArenaRegionRestoredEvent} when it
+ * is complete.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class RestoreCoordinator {
+
+    /**
+     * The default minimum number of blocks applied per tick.
+     */
+    public static final int DEFAULT_MIN_BLOCKS_PER_TICK = 2000;
+
+    /**
+     * The default maximum number of blocks applied per tick.
+     */
+    public static final int DEFAULT_MAX_BLOCKS_PER_TICK = 100000;
+
+    /**
+     * The default max time in nanoseconds spent applying blocks per tick.
+     */
+    public static final long DEFAULT_MAX_NANOS_PER_TICK = 10000000L;
+
+    /**
+     * The default target tick time in nanoseconds.
+     */
+    public static final long DEFAULT_TARGET_TICK_NANOS = 50000000L;
+
+    private final List<Entry> _entries = new ArrayList<>(10);
+
+    private int _minBlocks = DEFAULT_MIN_BLOCKS_PER_TICK;
+    private int _maxBlocks = DEFAULT_MAX_BLOCKS_PER_TICK;
+    private long _maxNanos = DEFAULT_MAX_NANOS_PER_TICK;
+    private long _targetTickNanos = DEFAULT_TARGET_TICK_NANOS;
+    private int _blockBudget = DEFAULT_MIN_BLOCKS_PER_TICK;
+    private long _lastTickNanos;
+    private long _totalQueued;
+    private IScheduledTask _task;
+
+    /**
+     * Get the number of queued and running restores.
+     */
+    public int size() {
+        return _entries.size();
+    }
+
+    /**
+     * Get the current per tick block budget.
+     */
+    public int getBlockBudget() {
+        return _blockBudget;
+    }
+
+    /**
+     * Set the range the per tick block budget is adjusted within.
+     *
+     * @param minBlocks  The minimum number of blocks per tick.
+     * @param maxBlocks  The maximum number of blocks per tick.
+     */
+    public void setBlockBudgetRange(int minBlocks, int maxBlocks) {
+        PreCon.greaterThanZero(minBlocks);
+        PreCon.isValid(maxBlocks >= minBlocks, "maxBlocks cannot be less than minBlocks.");
+
+        _minBlocks = minBlocks;
+        _maxBlocks = maxBlocks;
+        _blockBudget = Math.max(minBlocks, Math.min(maxBlocks, _blockBudget));
+    }
+
+    /**
+     * Set the max time in nanoseconds spent applying blocks per tick.
+     *
+     * @param nanos  The time in nanoseconds.
+     */
+    public void setMaxNanosPerTick(long nanos) {
+        PreCon.greaterThanZero(nanos);
+
+        _maxNanos = nanos;
+    }
+
+    /**
+     * Set the tick time in nanoseconds the block budget is adjusted to stay under.
+     *
+     * @param nanos  The time in nanoseconds.
+     */
+    public void setTargetTickNanos(long nanos) {
+        PreCon.greaterThanZero(nanos);
+
+        _targetTickNanos = nanos;
+    }
+
+    /**
+     * Determine if a restore for an arena is queued or running.
+     *
+     * @param arena  The arena.
+     */
+    public boolean isQueued(IArena arena) {
+        PreCon.notNull(arena);
+
+        for (Entry entry : _entries) {
+            if (entry.region.getArena().equals(arena))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Queue a chunked restore of an arena region.
+     *
+     * @param region  The region to restore.
+     * @param source  The saved chunk source.
+     *
+     * @return  A future that completes when the region is restored.
+     *
+     * @throws IllegalStateException if a chunked save or restore of the region is already running.
+     */
+    public IFutureResult<RegionRestoreEngine> restore(ArenaRegion region, IChunkSource source) {
+        PreCon.notNull(region);
+        PreCon.notNull(source);
+
+        IFutureResult<RegionRestoreEngine> future = region.restoreChunked(source, false);
+
+        RegionRestoreEngine engine = region.getRestoreEngine();
+        if (engine != null)
+            add(region, engine);
+
+        return future;
+    }
+
+    /**
+     * Queue a restore of an arena region from its palette snapshot file.
+     *
+     * @param region  The region to restore.
+     * @param folder  The folder the snapshot file is in.
+     *
+     * @return  A future that completes when the region is restored.
+     *
+     * @throws IOException if the snapshot file cannot be read.
+     * @throws IllegalStateException if a chunked save or restore of the region is already running.
+     */
+    public IFutureResult<RegionRestoreEngine> restoreSnapshot(ArenaRegion region, File folder)
+            throws IOException {
+        PreCon.notNull(region);
+        PreCon.notNull(folder);
+
+        IFutureResult<RegionRestoreEngine> future = region.restoreSnapshot(folder, false);
+
+        RegionRestoreEngine engine = region.getRestoreEngine();
+        if (engine != null)
+            add(region, engine);
+
+        return future;
+    }
+
+    /**
+     * Queue a restore of an arena region from a shared chunk store.
+     *
+     * @param region  The region to restore.
+     * @param store   The chunk store.
+     * @param folder  The folder the snapshot manifest file is in.
+     *
+     * @return  A future that completes when the region is restored.
+     *
+     * @throws IOException if the manifest file cannot be read.
+     * @throws IllegalStateException if a chunked save or restore of the region is already running.
+     */
+    public IFutureResult<RegionRestoreEngine> restoreFromStore(ArenaRegion region, ChunkStore store,
+                                                               File folder) throws IOException {
+        PreCon.notNull(region);
+        PreCon.notNull(store);
+        PreCon.notNull(folder);
+
+        IFutureResult<RegionRestoreEngine> future = region.restoreFromStore(store, folder, false);
+
+        RegionRestoreEngine engine = region.getRestoreEngine();
+        if (engine != null)
+            add(region, engine);
+
+        return future;
+    }
+
+    /**
+     * Queue a restore of only the blocks recorded in an arena regions
+     * change journal.
+     *
+     * @param region  The region to restore.
+     *
+     * @return  A future that completes when the region is restored or null if the
+     * journal is disabled or has overflowed and the region must be fully restored.
+     *
+     * @throws IllegalStateException if a chunked save or restore or a journal restore
+     * of the region is already running.
+     */
+    @Nullable
+    public IFutureResult<JournalRestoreEngine> restoreFromJournal(ArenaRegion region) {
+        PreCon.notNull(region);
+
+        IFutureResult<JournalRestoreEngine> future = region.restoreFromJournal(false);
+
+        JournalRestoreEngine engine = region.getJournalRestoreEngine();
+        if (engine != null)
+            add(region, engine);
+
+        return future;
+    }
+
+    /**
+     * Cancel all queued and running restores.
+     */
+    public void cancelAll() {
+        List<Entry> entries = new ArrayList<>(_entries);
+        _entries.clear();
+
+        for (Entry entry : entries)
+            entry.engine.cancel();
+
+        stopTask();
+    }
+
+    private void add(ArenaRegion region, IRegionRestore engine) {
+        _entries.add(new Entry(region, engine, _totalQueued++));
+
+        if (_task != null)
+            return;
+
+        _lastTickNanos = 0;
+        _task = Nucleus.getScheduler().runTaskRepeat(PVStarAPI.getPlugin(), 1, 1, new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        });
+    }
+
+    private void tick() {
+
+        long now = System.nanoTime();
+        if (_lastTickNanos != 0)
+            adjustBudget(now - _lastTickNanos);
+        _lastTickNanos = now;
+
+        for (Entry entry : _entries)
+            entry.updatePriority();
+
+        Collections.sort(_entries, PRIORITY_COMPARATOR);
+
+        int blocks = _blockBudget;
+        long deadline = now + _maxNanos;
+
+        Iterator<Entry> iterator = _entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+
+            long nanos = deadline - System.nanoTime();
+            if (blocks > 0 && nanos > 0)
+                blocks -= entry.engine.step(blocks, nanos);
+
+            if (entry.engine.isDone())
+                iterator.remove();
+        }
+
+        if (_entries.isEmpty())
+            stopTask();
+    }
+
+    /*
+     * Multiplicative decrease when the tick is over the target,
+     * additive increase when the server is keeping up.
+     */
+    private void adjustBudget(long tickNanos) {
+        if (tickNanos > _targetTickNanos + _targetTickNanos / 10) {
+            _blockBudget = Math.max(_minBlocks, _blockBudget - _blockBudget / 4);
+        }
+        else if (tickNanos <= _targetTickNanos + _targetTickNanos / 20) {
+            _blockBudget = Math.min(_maxBlocks, _blockBudget + Math.max(1, _minBlocks / 4));
+        }
+    }
+
+    private void stopTask() {
+        if (_task == null)
+            return;
+
+        _task.cancel();
+        _task = null;
+    }
+
+    private static final Comparator<Entry> PRIORITY_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry o1, Entry o2) {
+            if (o1.hasWaitingPlayers != o2.hasWaitingPlayers)
+                return o1.hasWaitingPlayers ? -1 : 1;
+
+            return Long.compare(o1.order, o2.order);
+        }
+    };
+
+    private static class Entry {
+        final ArenaRegion region;
+        final IRegionRestore engine;
+        final long order;
+        boolean hasWaitingPlayers;
+
+        Entry(ArenaRegion region, IRegionRestore engine, long order) {
+            this.region = region;
+            this.engine = engine;
+            this.order = order;
+        }
+
+        void updatePriority() {
+            hasWaitingPlayers = !region.getArena().getLobby().getPlayers().isEmpty();
+        }
+    }
+}
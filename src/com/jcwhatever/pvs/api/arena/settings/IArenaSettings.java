@@ -27,6 +27,7 @@ package com.jcwhatever.pvs.api.arena.settings;
 
 import com.jcwhatever.pvs.api.arena.options.DropsCleanup;
 import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
 
 import javax.annotation.Nullable;
 
@@ -128,6 +129,113 @@ public interface IArenaSettings {
      */
     void setMobSpawnEnabled(boolean isEnabled);
 
+    /**
+     * Get the max number of live entities spawned from spawnpoints
+     * that the arena can have at the same time.
+     *
+     * @return  The max entities or 0 if there is no limit.
+     */
+    int getMaxEntities();
+
+    /**
+     * Set the max number of live entities spawned from spawnpoints
+     * that the arena can have at the same time.
+     *
+     * @param max  The max entities or 0 for no limit.
+     */
+    void setMaxEntities(int max);
+
+    /**
+     * Get the max number of live entities of the specified type spawned
+     * from spawnpoints that the arena can have at the same time.
+     *
+     * @param type  The entity type.
+     *
+     * @return  The max entities or 0 if there is no limit.
+     */
+    int getMaxEntities(EntityType type);
+
+    /**
+     * Set the max number of live entities of the specified type spawned
+     * from spawnpoints that the arena can have at the same time.
+     *
+     * @param type  The entity type.
+     * @param max   The max entities or 0 for no limit.
+     */
+    void setMaxEntities(EntityType type, int max);
+
+    /**
+     * Get the max number of region chunks kept loaded while
+     * a match is running.
+     *
+     * @return  The max chunks or 0 to disable chunk prewarming.
+     */
+    int getMaxPinnedChunks();
+
+    /**
+     * Set the max number of region chunks kept loaded while
+     * a match is running.
+     *
+     * @param max  The max chunks or 0 to disable chunk prewarming.
+     */
+    void setMaxPinnedChunks(int max);
+
+    /**
+     * Determine if the arena is a template that instances are created from.
+     *
+     * <p>Template arenas cannot be joined.</p>
+     */
+    boolean isTemplate();
+
+    /**
+     * Set the arena as a template that instances are created from.
+     *
+     * @param isTemplate  True to set as a template.
+     */
+    void setTemplate(boolean isTemplate);
+
+    /**
+     * Get the max number of instances created from the template.
+     */
+    int getMaxInstances();
+
+    /**
+     * Set the max number of instances created from the template.
+     *
+     * @param max  The max instances.
+     */
+    void setMaxInstances(int max);
+
+    /**
+     * Get the number of joinable instances kept available
+     * for a template.
+     */
+    int getSpareInstances();
+
+    /**
+     * Set the number of joinable instances kept available
+     * for a template.
+     *
+     * @param spare  The number of spare instances.
+     */
+    void setSpareInstances(int spare);
+
+    /**
+     * Get the max number of changed blocks recorded in the regions
+     * change journal while a match is running.
+     *
+     * @return  The max blocks or 0 to disable the journal.
+     */
+    int getMaxJournalBlocks();
+
+    /**
+     * Set the max number of changed blocks recorded in the regions
+     * change journal while a match is running.
+     *
+     * @param max  The max blocks or 0 to disable the journal.
+     */
+    void setMaxJournalBlocks(int max);
+
     /**
      * Get the location a player is teleported to when
      * they are removed from the arena region.
@@ -73,6 +73,20 @@ public interface IGameSettings extends IContextSettings {
      */
     void setPointsBehavior(PointsBehavior behavior);
 
+    /**
+     * Get the max number of players teleported per tick when
+     * the game starts.
+     */
+    int getStartTeleportsPerTick();
+
+    /**
+     * Set the max number of players teleported per tick when
+     * the game starts.
+     *
+     * @param teleports  The number of teleports per tick.
+     */
+    void setStartTeleportsPerTick(int teleports);
+
     /**
      * Set entities such dropped items removed when the game ends.
      *
@@ -28,6 +28,9 @@ import com.jcwhatever.pvs.api.arena.IArena;
 
 /**
  * Called when an arena is loaded.
+ *
+ * <p>When lazy loading is enabled, called when the arena is first used
+ * instead of at startup.</p>
  */
 public class ArenaLoadedEvent extends AbstractArenaEvent {
 
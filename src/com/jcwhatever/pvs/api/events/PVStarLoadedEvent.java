@@ -26,6 +26,9 @@ package com.jcwhatever.pvs.api.events;
 
 /**
  * Called when PV-Star is finished loading modules an arenas.
+ *
+ * <p>When lazy loading is enabled, arenas are registered but
+ * not loaded.</p>
  */
 public class PVStarLoadedEvent {
 
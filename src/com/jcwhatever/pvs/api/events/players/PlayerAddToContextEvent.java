@@ -26,6 +26,7 @@
 package com.jcwhatever.pvs.api.events.players;
 
 import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.coords.LocationUtils;
 import com.jcwhatever.pvs.api.arena.IArena;
 import com.jcwhatever.pvs.api.arena.IArenaPlayer;
 import com.jcwhatever.pvs.api.arena.context.IContextManager;
@@ -99,6 +100,24 @@ public class PlayerAddToContextEvent extends AbstractPlayerEvent {
         return _initialSpawnLocation;
     }
 
+    /**
+     * Copy the spawn location set when the event was called into an
+     * output {@link Location}.
+     *
+     * @param output  The output location.
+     *
+     * @return  The output location or null if there is no initial spawn location.
+     */
+    @Nullable
+    public Location getInitialSpawnLocation(Location output) {
+        PreCon.notNull(output);
+
+        if (_initialSpawnLocation == null)
+            return null;
+
+        return LocationUtils.copy(_initialSpawnLocation, output);
+    }
+
     /**
      * Get the current spawn location.
      */
@@ -107,6 +126,23 @@ public class PlayerAddToContextEvent extends AbstractPlayerEvent {
         return _spawnLocation;
     }
 
+    /**
+     * Copy the current spawn location into an output {@link Location}.
+     *
+     * @param output  The output location.
+     *
+     * @return  The output location or null if there is no spawn location.
+     */
+    @Nullable
+    public Location getSpawnLocation(Location output) {
+        PreCon.notNull(output);
+
+        if (_spawnLocation == null)
+            return null;
+
+        return LocationUtils.copy(_spawnLocation, output);
+    }
+
     /**
      * Set the players spawn location.
      *
@@ -31,6 +31,7 @@ import com.jcwhatever.pvs.api.arena.IArena;
 import com.jcwhatever.pvs.api.arena.IArenaPlayer;
 import com.jcwhatever.pvs.api.arena.context.IContextManager;
 import org.bukkit.Location;
+import org.bukkit.World;
 
 import javax.annotation.Nullable;
 
@@ -40,14 +41,24 @@ import javax.annotation.Nullable;
 public class PlayerArenaRespawnEvent extends AbstractPlayerEvent {
 
     private Location _respawnLocation;
-    private Location _originalRespawnLocation;
+
+    // initial respawn location values are stored as fields
+    // to prevent allocating a location copy for every respawn.
+    private final World _initialWorld;
+    private final double _initialX;
+    private final double _initialY;
+    private final double _initialZ;
+    private final float _initialYaw;
+    private final float _initialPitch;
 
     /**
      * Constructor.
      *
      * @param arena            The event arena.
      * @param player           The player being respawned.
-     * @param respawnLocation  The location the player will be respawned at.
+     * @param respawnLocation  The location the player will be respawned at. The location
+     *                         instance is modified by {@link #setRespawnLocation} and
+     *                         may be a pooled instance.
      */
     public PlayerArenaRespawnEvent(IArena arena,
                                    IArenaPlayer player,
@@ -59,23 +70,43 @@ public class PlayerArenaRespawnEvent extends AbstractPlayerEvent {
         PreCon.notNull(respawnLocation);
 
         _respawnLocation = respawnLocation;
-        _originalRespawnLocation = LocationUtils.copy(respawnLocation);
+        _initialWorld = respawnLocation.getWorld();
+        _initialX = respawnLocation.getX();
+        _initialY = respawnLocation.getY();
+        _initialZ = respawnLocation.getZ();
+        _initialYaw = respawnLocation.getYaw();
+        _initialPitch = respawnLocation.getPitch();
     }
 
     /**
      * Get the respawn location set when the event was called.
+     *
+     * <p>Returns a new {@link Location} instance. Use
+     * {@link #getInitialRespawnLocation(Location)} to prevent allocation.</p>
      */
     public Location getInitialRespawnLocation() {
-        return _originalRespawnLocation.clone();
+        return getInitialRespawnLocation(new Location(null, 0, 0, 0));
     }
 
     /**
-     * Get the respawn location set when the event was called.
+     * Copy the respawn location set when the event was called into
+     * an output {@link Location}.
+     *
+     * @param output  The output location.
+     *
+     * @return  The output location.
      */
     public Location getInitialRespawnLocation(Location output) {
         PreCon.notNull(output);
 
-        return LocationUtils.copy(_originalRespawnLocation, output);
+        output.setWorld(_initialWorld);
+        output.setX(_initialX);
+        output.setY(_initialY);
+        output.setZ(_initialZ);
+        output.setYaw(_initialYaw);
+        output.setPitch(_initialPitch);
+
+        return output;
     }
 
     /**
@@ -85,6 +116,19 @@ public class PlayerArenaRespawnEvent extends AbstractPlayerEvent {
         return _respawnLocation;
     }
 
+    /**
+     * Copy the respawn location into an output {@link Location}.
+     *
+     * @param output  The output location.
+     *
+     * @return  The output location.
+     */
+    public Location getRespawnLocation(Location output) {
+        PreCon.notNull(output);
+
+        return LocationUtils.copy(_respawnLocation, output);
+    }
+
     /**
      * Set the respawn location.
      *
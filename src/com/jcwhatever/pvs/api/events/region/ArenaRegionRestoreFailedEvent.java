@@ -0,0 +1,61 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.events.region;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.events.AbstractArenaEvent;
+
+/**
+ * Called when an arena region restore fails or is cancelled.
+ *
+ * <p>The region may be partially restored. The arena is disabled until
+ * the region is successfully restored.</p>
+ */
+public class ArenaRegionRestoreFailedEvent extends AbstractArenaEvent {
+
+    private final String _reason;
+
+    /**
+     * Constructor.
+     *
+     * @param arena   The event arena.
+     * @param reason  The reason the restore failed.
+     */
+    public ArenaRegionRestoreFailedEvent(IArena arena, String reason) {
+        super(arena);
+        PreCon.notNull(reason);
+
+        _reason = reason;
+    }
+
+    /**
+     * Get the reason the restore failed.
+     */
+    public String getReason() {
+        return _reason;
+    }
+}
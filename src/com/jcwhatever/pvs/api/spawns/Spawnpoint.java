@@ -27,15 +27,18 @@ package com.jcwhatever.pvs.api.spawns;
 
 import com.jcwhatever.nucleus.managed.teleport.TeleportMode;
 import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.coords.LocationUtils;
 import com.jcwhatever.nucleus.utils.coords.NamedLocation;
 import com.jcwhatever.pvs.api.arena.ArenaTeam;
 import com.jcwhatever.pvs.api.arena.IArena;
 import com.jcwhatever.pvs.api.arena.IArenaPlayer;
+import com.jcwhatever.pvs.api.utils.SpawnGovernor;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Entity;
 
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -48,6 +51,7 @@ public class Spawnpoint extends NamedLocation {
 
     private final SpawnType _type;
     private ArenaTeam _team = ArenaTeam.NONE;
+    private double _weight = 1.0D;
 
     /**
      * Constructor.
@@ -171,13 +175,56 @@ public class Spawnpoint extends NamedLocation {
         return _team;
     }
 
+    /**
+     * Get the relative weight of the spawnpoint used when
+     * selecting a weighted random spawn.
+     *
+     * <p>The default weight is 1.0.</p>
+     */
+    public double getWeight() {
+        return _weight;
+    }
+
+    /**
+     * Set the relative weight of the spawnpoint used when
+     * selecting a weighted random spawn.
+     *
+     * @param weight  The weight. 0 to exclude the spawn from weighted selection.
+     */
+    public void setWeight(double weight) {
+        PreCon.positiveNumber(weight);
+
+        _weight = weight;
+    }
+
+    /**
+     * Copy the spawnpoint location values into an output {@link Location}.
+     *
+     * @param output  The output location.
+     *
+     * @return  The output location.
+     */
+    public Location getLocation(Location output) {
+        PreCon.notNull(output);
+
+        return LocationUtils.copy(this, output);
+    }
+
     /**
      * Spawn an entity if the spawn type allows.
      *
+     * <p>All entities are spawned immediately. Use the arenas
+     * {@link com.jcwhatever.pvs.api.arena.managers.ISpawnManager#getSpawnQueue}
+     * to spread large numbers of spawns over multiple ticks.</p>
+     *
+     * <p>The number of entities spawned is limited by the arenas
+     * {@link SpawnGovernor}. Spawned entities are tracked by the governor.</p>
+     *
      * @param arena  The arena to spawn for.
      * @param count  The number of entities to spawn.
      *
-     * @return Null if the spawn type is not a spawner.
+     * @return Null if the spawn type is not a spawner. Empty if the governor
+     * denied the spawn.
      */
     @Nullable
     public List<Entity> spawn(IArena arena, int count) {
@@ -187,7 +234,17 @@ public class Spawnpoint extends NamedLocation {
         if (!_type.isSpawner())
             return null;
 
-        return _type.spawn(arena, this, count);
+        SpawnGovernor governor = arena.getSpawns().getGovernor();
+
+        count = governor.getAllowed(_type, count);
+        if (count == 0)
+            return Collections.emptyList();
+
+        List<Entity> entities = _type.spawn(arena, this, count);
+        if (entities != null)
+            governor.track(entities);
+
+        return entities;
     }
 
     /**
@@ -0,0 +1,270 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.spawns;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import com.jcwhatever.pvs.api.arena.ArenaTeam;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes an arenas spawnpoints as a compact binary table.
+ *
+ * <p>Names, spawn type names, team names and world names are written once to
+ * a string pool and referenced by index. Coordinates are packed as fixed
+ * width values. The whole table is read with a single sequential read.</p>
+ *
+ * <p>Spawns stored in the previous data node format should be loaded the old
+ * way when no table file exists and then written as a table.</p>
+ */
+public final class SpawnpointTable {
+
+    private SpawnpointTable() {}
+
+    /**
+     * The name of the spawn table file in an arenas data folder.
+     */
+    public static final String FILE_NAME = "spawns.bin";
+
+    private static final int MAGIC = 0x50565350; // PVSP
+    private static final int VERSION = 1;
+
+    /**
+     * Write spawnpoints to a table file.
+     *
+     * <p>The table is written to a temporary file first and then moved
+     * over the existing file.</p>
+     *
+     * @param file    The table file.
+     * @param spawns  The spawnpoints to write.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(File file, Collection<? extends Spawnpoint> spawns) throws IOException {
+        PreCon.notNull(file);
+        PreCon.notNull(spawns);
+
+        Map<String, Integer> poolIndex = new HashMap<>(spawns.size() + 10);
+        List<String> pool = new ArrayList<>(spawns.size() + 10);
+        int[] refs = new int[spawns.size() * 4];
+
+        int i = 0;
+        for (Spawnpoint spawn : spawns) {
+            World world = spawn.getWorld();
+
+            refs[i++] = pool(spawn.getName(), pool, poolIndex);
+            refs[i++] = pool(spawn.getSpawnType().getName(), pool, poolIndex);
+            refs[i++] = pool(spawn.getTeam().name(), pool, poolIndex);
+            refs[i++] = pool(world != null ? world.getName() : "", pool, poolIndex);
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp), 8192))) {
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+
+            writeVarInt(out, pool.size());
+            for (String string : pool)
+                out.writeUTF(string);
+
+            writeVarInt(out, spawns.size());
+
+            i = 0;
+            for (Spawnpoint spawn : spawns) {
+                writeVarInt(out, refs[i++]);
+                writeVarInt(out, refs[i++]);
+                writeVarInt(out, refs[i++]);
+                writeVarInt(out, refs[i++]);
+                out.writeDouble(spawn.getX());
+                out.writeDouble(spawn.getY());
+                out.writeDouble(spawn.getZ());
+                out.writeFloat(spawn.getYaw());
+                out.writeFloat(spawn.getPitch());
+                out.writeDouble(spawn.getWeight());
+            }
+        }
+
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read spawnpoints from a table file.
+     *
+     * <p>Spawnpoints whose spawn type is not registered or whose world
+     * is not loaded are skipped.</p>
+     *
+     * @param file  The table file.
+     *
+     * @return  The spawnpoints.
+     *
+     * @throws IOException if the file cannot be read or is not a spawn table.
+     */
+    public static List<Spawnpoint> read(File file) throws IOException {
+        PreCon.notNull(file);
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        if (in.readInt() != MAGIC)
+            throw new IOException("File is not a spawn table: " + file.getName());
+
+        int version = in.readUnsignedByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported spawn table version: " + version);
+
+        // every entry uses at least one byte, larger counts are corrupt
+        String[] pool = new String[readCount(in, bytes.length)];
+        for (int i = 0; i < pool.length; i++)
+            pool[i] = in.readUTF();
+
+        // resolve pooled types, teams and worlds once. A pooled string can be
+        // referenced in more than one role, so each role has its own cache.
+        SpawnType[] types = new SpawnType[pool.length];
+        ArenaTeam[] teams = new ArenaTeam[pool.length];
+        World[] worlds = new World[pool.length];
+        boolean[] isTypeResolved = new boolean[pool.length];
+        boolean[] isWorldResolved = new boolean[pool.length];
+
+        int total = readCount(in, bytes.length);
+        List<Spawnpoint> spawns = new ArrayList<>(total);
+
+        for (int i = 0; i < total; i++) {
+            String name = pool[readRef(in, pool.length)];
+            int typeRef = readRef(in, pool.length);
+            int teamRef = readRef(in, pool.length);
+            int worldRef = readRef(in, pool.length);
+            double x = in.readDouble();
+            double y = in.readDouble();
+            double z = in.readDouble();
+            float yaw = in.readFloat();
+            float pitch = in.readFloat();
+            double weight = in.readDouble();
+
+            if (!isTypeResolved[typeRef]) {
+                types[typeRef] = PVStarAPI.getSpawnTypeManager().getType(pool[typeRef]);
+                isTypeResolved[typeRef] = true;
+            }
+
+            if (teams[teamRef] == null)
+                teams[teamRef] = getTeam(pool[teamRef]);
+
+            if (!isWorldResolved[worldRef]) {
+                worlds[worldRef] = Bukkit.getWorld(pool[worldRef]);
+                isWorldResolved[worldRef] = true;
+            }
+
+            if (types[typeRef] == null || worlds[worldRef] == null)
+                continue;
+
+            Spawnpoint spawn = new Spawnpoint(name, types[typeRef], teams[teamRef],
+                    worlds[worldRef], x, y, z, yaw, pitch);
+
+            spawn.setWeight(weight);
+            spawns.add(spawn);
+        }
+
+        return spawns;
+    }
+
+    private static ArenaTeam getTeam(String name) {
+        try {
+            return ArenaTeam.valueOf(name);
+        }
+        catch (IllegalArgumentException e) {
+            return ArenaTeam.NONE;
+        }
+    }
+
+    private static int pool(String string, List<String> pool, Map<String, Integer> poolIndex) {
+        Integer index = poolIndex.get(string);
+        if (index == null) {
+            index = pool.size();
+            pool.add(string);
+            poolIndex.put(string, index);
+        }
+        return index;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readCount(DataInputStream in, int max) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0 || count > max)
+            throw new IOException("Malformed spawn table, invalid count: " + count);
+
+        return count;
+    }
+
+    private static int readRef(DataInputStream in, int poolSize) throws IOException {
+        int ref = readVarInt(in);
+        if (ref < 0 || ref >= poolSize)
+            throw new IOException("Malformed spawn table, invalid string reference: " + ref);
+
+        return ref;
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+
+        do {
+            if (shift > 28)
+                throw new IOException("Malformed spawn table.");
+
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+}
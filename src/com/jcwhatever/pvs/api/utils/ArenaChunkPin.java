@@ -0,0 +1,246 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.Nucleus;
+import com.jcwhatever.nucleus.managed.scheduler.IScheduledTask;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import com.jcwhatever.pvs.api.arena.ArenaRegion;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Loads the chunks of an {@link ArenaRegion} ahead of a match and keeps
+ * them loaded until released.
+ *
+ * <p>Chunks are loaded a limited number per tick, nearest to the region
+ * center first. The number of pinned chunks is capped to limit memory use;
+ * chunks beyond the cap are not prewarmed.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class ArenaChunkPin implements Listener {
+
+    /**
+     * The default number of chunks loaded per tick.
+     */
+    public static final int DEFAULT_CHUNKS_PER_TICK = 4;
+
+    private final ArenaRegion _region;
+    private final Set<Long> _pinned = new HashSet<>(50);
+
+    private int _chunksPerTick = DEFAULT_CHUNKS_PER_TICK;
+    private World _world;
+    private long[] _queue;
+    private int _queueIndex;
+    private IScheduledTask _task;
+    private boolean _isListening;
+
+    /**
+     * Constructor.
+     *
+     * @param region  The region to pin chunks for.
+     */
+    public ArenaChunkPin(ArenaRegion region) {
+        PreCon.notNull(region);
+
+        _region = region;
+    }
+
+    /**
+     * Get the region the chunks are pinned for.
+     */
+    public ArenaRegion getRegion() {
+        return _region;
+    }
+
+    /**
+     * Set the max number of chunks loaded per tick.
+     *
+     * @param chunks  The number of chunks.
+     */
+    public void setChunksPerTick(int chunks) {
+        PreCon.greaterThanZero(chunks);
+
+        _chunksPerTick = chunks;
+    }
+
+    /**
+     * Get the number of pinned chunks.
+     */
+    public int getPinnedCount() {
+        return _pinned.size();
+    }
+
+    /**
+     * Determine if chunks are still being loaded.
+     */
+    public boolean isLoading() {
+        return _task != null;
+    }
+
+    /**
+     * Determine if a chunk is pinned.
+     *
+     * @param world  The chunk world.
+     * @param x      The chunk X coordinates.
+     * @param z      The chunk Z coordinates.
+     */
+    public boolean isPinned(World world, int x, int z) {
+        PreCon.notNull(world);
+
+        return world.equals(_world) && _pinned.contains(chunkKey(x, z));
+    }
+
+    /**
+     * Start loading and pinning the regions chunks.
+     *
+     * <p>Does nothing if the region is not defined or the chunks
+     * are already pinned.</p>
+     *
+     * @param maxChunks  The max number of chunks to pin.
+     */
+    public void prewarm(int maxChunks) {
+        PreCon.greaterThanZero(maxChunks);
+
+        if (!_region.isDefined() || _world != null)
+            return;
+
+        _world = _region.getWorld();
+        if (_world == null)
+            return;
+
+        int startX = _region.getXStart() >> 4;
+        int endX = _region.getXEnd() >> 4;
+        int startZ = _region.getZStart() >> 4;
+        int endZ = _region.getZEnd() >> 4;
+
+        final int centerX = (startX + endX) / 2;
+        final int centerZ = (startZ + endZ) / 2;
+
+        int total = (endX - startX + 1) * (endZ - startZ + 1);
+
+        // sort chunks nearest to the center first, encoded as
+        // distance in the high bits and chunk index in the low bits
+        long[] sorted = new long[total];
+        int index = 0;
+        for (int x = startX; x <= endX; x++) {
+            for (int z = startZ; z <= endZ; z++) {
+                long dx = x - centerX;
+                long dz = z - centerZ;
+                sorted[index] = ((dx * dx + dz * dz) << 32) | index;
+                index++;
+            }
+        }
+        Arrays.sort(sorted);
+
+        int width = endZ - startZ + 1;
+        int count = Math.min(total, maxChunks);
+
+        _queue = new long[count];
+        for (int i = 0; i < count; i++) {
+            int chunkIndex = (int) (sorted[i] & 0xFFFFFFFFL);
+            _queue[i] = chunkKey(startX + chunkIndex / width, startZ + chunkIndex % width);
+        }
+        _queueIndex = 0;
+
+        if (!_isListening) {
+            Bukkit.getPluginManager().registerEvents(this, PVStarAPI.getPlugin());
+            _isListening = true;
+        }
+
+        _task = Nucleus.getScheduler().runTaskRepeat(PVStarAPI.getPlugin(), 1, 1, new Runnable() {
+            @Override
+            public void run() {
+                loadNext();
+            }
+        });
+    }
+
+    /**
+     * Release all pinned chunks so they can be unloaded by the server.
+     */
+    public void release() {
+
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+
+        if (_isListening) {
+            HandlerList.unregisterAll(this);
+            _isListening = false;
+        }
+
+        _pinned.clear();
+        _queue = null;
+        _world = null;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    private void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+
+        if (isPinned(chunk.getWorld(), chunk.getX(), chunk.getZ()))
+            event.setCancelled(true);
+    }
+
+    private void loadNext() {
+
+        int end = Math.min(_queueIndex + _chunksPerTick, _queue.length);
+
+        for (; _queueIndex < end; _queueIndex++) {
+            long key = _queue[_queueIndex];
+            int x = (int) (key >> 32);
+            int z = (int) key;
+
+            if (!_world.isChunkLoaded(x, z))
+                _world.loadChunk(x, z, true);
+
+            _pinned.add(key);
+        }
+
+        if (_queueIndex == _queue.length) {
+            _task.cancel();
+            _task = null;
+        }
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+}
@@ -25,18 +25,54 @@
 
 package com.jcwhatever.pvs.api.utils;
 
+import com.jcwhatever.nucleus.events.manager.EventMethod;
+import com.jcwhatever.nucleus.events.manager.IEventListener;
 import com.jcwhatever.nucleus.utils.converters.Converter;
 import com.jcwhatever.nucleus.utils.text.TextUtils;
 import com.jcwhatever.pvs.api.PVStarAPI;
 import com.jcwhatever.pvs.api.arena.IArena;
 import com.jcwhatever.pvs.api.arena.options.NameMatchMode;
+import com.jcwhatever.pvs.api.events.ArenaCreatedEvent;
+import com.jcwhatever.pvs.api.events.ArenaDisposeEvent;
+import org.bukkit.plugin.Plugin;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import javax.annotation.Nullable;
 
 public class ArenaConverters {
 
+    /**
+     * The max number of memoized string conversions.
+     */
+    public static final int MAX_MEMO_SIZE = 256;
+
+    // least recently used memo of string to resolved arena ID
+    private static final Map<String, Resolved> _memo =
+            new LinkedHashMap<String, Resolved>(MAX_MEMO_SIZE, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Resolved> eldest) {
+            return size() > MAX_MEMO_SIZE;
+        }
+    };
+
+    private static volatile boolean _isListening;
+
+    /**
+     * Clear memoized string conversions.
+     *
+     * <p>Invoked when an arena is created or disposed and by the arena
+     * manager when an arena is renamed.</p>
+     */
+    public static void invalidate() {
+        synchronized (_memo) {
+            _memo.clear();
+        }
+    }
+
     /**
      * Convert to arena name.
      */
@@ -49,13 +85,11 @@ public class ArenaConverters {
 
             if (value instanceof String) {
 
-                arenaId = TextUtils.parseUUID((String)value);
-                if (arenaId == null) {
-                    List<IArena> arenas = PVStarAPI.getArenaManager().getArena(
-                            (String) value, NameMatchMode.CASE_INSENSITIVE);
+                Resolved resolved = resolve((String) value);
 
-                    return arenas.size() == 1 ? arenas.get(0).getName() : null;
-                }
+                arenaId = resolved.parsedId;
+                if (arenaId == null)
+                    arenaId = resolved.matchId;
             }
 
             // see if value is already a uuid
@@ -95,14 +129,10 @@ public class ArenaConverters {
 
             if (value instanceof String) {
 
-                // see if string corresponds to arena name
-                List<IArena> matches = PVStarAPI.getArenaManager().getArena(
-                        (String) value, NameMatchMode.CASE_INSENSITIVE);
-                if (matches.size() == 1)
-                    return matches.get(0).getId();
+                Resolved resolved = resolve((String) value);
 
-                // try converting string to uuid
-                return TextUtils.parseUUID((String) value);
+                // prefer arena name match, otherwise the string converted to uuid
+                return resolved.matchId != null ? resolved.matchId : resolved.parsedId;
             }
 
             if (value instanceof IArena) {
@@ -112,4 +142,92 @@ public class ArenaConverters {
             return null;
         }
     };
+
+    /*
+     * Get the memoized name match and uuid conversion of a string.
+     */
+    private static Resolved resolve(String value) {
+
+        listen();
+
+        Resolved resolved;
+        synchronized (_memo) {
+            resolved = _memo.get(value);
+        }
+
+        if (resolved != null && resolved.isValid(value))
+            return resolved;
+
+        List<IArena> matches = PVStarAPI.getArenaManager().getArena(
+                value, NameMatchMode.CASE_INSENSITIVE);
+
+        resolved = new Resolved(
+                matches.size() == 1 ? matches.get(0).getId() : null,
+                TextUtils.parseUUID(value));
+
+        synchronized (_memo) {
+            _memo.put(value, resolved);
+        }
+
+        return resolved;
+    }
+
+    /*
+     * Register the listener that clears the memo when arenas are created
+     * or disposed. Not done statically so the class can be loaded before
+     * the PV-Star implementation is set.
+     */
+    private static void listen() {
+
+        if (_isListening)
+            return;
+
+        synchronized (_memo) {
+            if (_isListening)
+                return;
+
+            PVStarAPI.getEventManager().register(new MemoInvalidator());
+            _isListening = true;
+        }
+    }
+
+    private static class MemoInvalidator implements IEventListener {
+
+        @Override
+        public Plugin getPlugin() {
+            return PVStarAPI.getPlugin();
+        }
+
+        @EventMethod
+        public void onArenaCreated(ArenaCreatedEvent event) {
+            invalidate();
+        }
+
+        @EventMethod
+        public void onArenaDispose(ArenaDisposeEvent event) {
+            invalidate();
+        }
+    }
+
+    private static class Resolved {
+        final UUID matchId;
+        final UUID parsedId;
+
+        Resolved(@Nullable UUID matchId, @Nullable UUID parsedId) {
+            this.matchId = matchId;
+            this.parsedId = parsedId;
+        }
+
+        /*
+         * A matched arena must still exist and have the same name. Missing
+         * matches are cleared by invalidate.
+         */
+        boolean isValid(String value) {
+            if (matchId == null)
+                return true;
+
+            IArena arena = PVStarAPI.getArenaManager().getArena(matchId);
+            return arena != null && arena.getName().equalsIgnoreCase(value);
+        }
+    }
 }
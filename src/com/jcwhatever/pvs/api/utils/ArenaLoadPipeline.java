@@ -0,0 +1,195 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Loads arenas during startup by parsing arena data in parallel.
+ *
+ * <p>Each arena is parsed on a worker thread using {@link IArenaLoader#parse}.
+ * The main thread then finishes each arena with {@link IArenaLoader#finish} in
+ * the order the arenas were added, waiting for an arena to be parsed before
+ * finishing it, so {@link com.jcwhatever.pvs.api.events.ArenaLoadedEvent}'s are
+ * called in the same order as a sequential load.</p>
+ *
+ * @param <T>  The type of the parsed arena data.
+ */
+public class ArenaLoadPipeline<T> {
+
+    private final IArenaLoader<T> _loader;
+    private final ArenaLoadStats _stats;
+    private final List<UUID> _arenaIds = new ArrayList<>(50);
+    private int _threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Constructor.
+     *
+     * @param loader  The arena loader.
+     * @param stats   The stats to record load times in. Null to not record.
+     */
+    public ArenaLoadPipeline(IArenaLoader<T> loader, @Nullable ArenaLoadStats stats) {
+        PreCon.notNull(loader);
+
+        _loader = loader;
+        _stats = stats;
+    }
+
+    /**
+     * Set the number of worker threads used to parse arenas.
+     *
+     * @param threads  The number of threads.
+     */
+    public void setThreads(int threads) {
+        PreCon.greaterThanZero(threads);
+
+        _threads = threads;
+    }
+
+    /**
+     * Add an arena to load.
+     *
+     * @param arenaId  The ID of the arena.
+     */
+    public void add(UUID arenaId) {
+        PreCon.notNull(arenaId);
+
+        _arenaIds.add(arenaId);
+    }
+
+    /**
+     * Get the number of arenas added.
+     */
+    public int size() {
+        return _arenaIds.size();
+    }
+
+    /**
+     * Load all added arenas.
+     *
+     * <p>Must be invoked from the main thread. Blocks until every arena
+     * is finished or failed.</p>
+     *
+     * @return  The number of arenas loaded.
+     */
+    public int loadAll() {
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(_threads, Math.max(1, _arenaIds.size())), THREAD_FACTORY);
+
+        try {
+            List<Future<Parsed<T>>> futures = new ArrayList<>(_arenaIds.size());
+
+            for (final UUID arenaId : _arenaIds) {
+                futures.add(pool.submit(new Callable<Parsed<T>>() {
+                    @Override
+                    public Parsed<T> call() throws Exception {
+                        long start = System.nanoTime();
+                        T data = _loader.parse(arenaId);
+                        return new Parsed<>(data, System.nanoTime() - start);
+                    }
+                }));
+            }
+
+            int loaded = 0;
+
+            for (int i = 0; i < futures.size(); i++) {
+                UUID arenaId = _arenaIds.get(i);
+
+                Parsed<T> parsed;
+                try {
+                    parsed = futures.get(i).get();
+                }
+                catch (ExecutionException e) {
+                    _loader.fail(arenaId, e.getCause());
+                    continue;
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    // remaining arenas are never finished, report them so none are left pending
+                    for (int j = i; j < futures.size(); j++) {
+                        _loader.fail(_arenaIds.get(j), e);
+                    }
+                    break;
+                }
+
+                long start = System.nanoTime();
+                try {
+                    _loader.finish(arenaId, parsed.data);
+                }
+                catch (RuntimeException e) {
+                    _loader.fail(arenaId, e);
+                    continue;
+                }
+
+                if (_stats != null)
+                    _stats.recordLoad(parsed.nanos + (System.nanoTime() - start), false);
+
+                loaded++;
+            }
+
+            return loaded;
+        }
+        finally {
+            pool.shutdownNow();
+            _arenaIds.clear();
+        }
+    }
+
+    private static final AtomicInteger _threadCount = new AtomicInteger();
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PV-Star Arena Loader " + _threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private static class Parsed<T> {
+        final T data;
+        final long nanos;
+
+        Parsed(T data, long nanos) {
+            this.data = data;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records arena load times.
+ *
+ * <p>Eager loads are arenas loaded during startup. Lazy loads are arenas
+ * loaded on first use after startup.</p>
+ *
+ * <p>Thread safe.</p>
+ */
+public class ArenaLoadStats {
+
+    private int _registered;
+    private long _registerNanos;
+    private int _eagerCount;
+    private long _eagerNanos;
+    private int _lazyCount;
+    private long _lazyNanos;
+    private long _maxLazyNanos;
+
+    /**
+     * Record the time spent registering arenas at startup.
+     *
+     * @param count  The number of arenas registered.
+     * @param nanos  The time spent in nanoseconds.
+     */
+    public synchronized void recordRegistered(int count, long nanos) {
+        PreCon.positiveNumber(count);
+        PreCon.positiveNumber(nanos);
+
+        _registered += count;
+        _registerNanos += nanos;
+    }
+
+    /**
+     * Record the time spent loading an arena.
+     *
+     * @param nanos   The time spent in nanoseconds.
+     * @param isLazy  True if the arena was loaded on first use, false if
+     *                loaded during startup.
+     */
+    public synchronized void recordLoad(long nanos, boolean isLazy) {
+        PreCon.positiveNumber(nanos);
+
+        if (isLazy) {
+            _lazyCount++;
+            _lazyNanos += nanos;
+            _maxLazyNanos = Math.max(_maxLazyNanos, nanos);
+        }
+        else {
+            _eagerCount++;
+            _eagerNanos += nanos;
+        }
+    }
+
+    /**
+     * Get the number of arenas registered at startup.
+     */
+    public synchronized int getRegisteredCount() {
+        return _registered;
+    }
+
+    /**
+     * Get the time spent registering arenas in nanoseconds.
+     */
+    public synchronized long getRegisterNanos() {
+        return _registerNanos;
+    }
+
+    /**
+     * Get the number of arenas loaded during startup.
+     */
+    public synchronized int getEagerCount() {
+        return _eagerCount;
+    }
+
+    /**
+     * Get the total time spent loading arenas during startup in nanoseconds.
+     */
+    public synchronized long getEagerNanos() {
+        return _eagerNanos;
+    }
+
+    /**
+     * Get the number of arenas loaded on first use.
+     */
+    public synchronized int getLazyCount() {
+        return _lazyCount;
+    }
+
+    /**
+     * Get the total time spent loading arenas on first use in nanoseconds.
+     */
+    public synchronized long getLazyNanos() {
+        return _lazyNanos;
+    }
+
+    /**
+     * Get the longest time spent loading a single arena on first
+     * use in nanoseconds.
+     */
+    public synchronized long getMaxLazyNanos() {
+        return _maxLazyNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "registered " + _registered + " in " + toMillis(_registerNanos) + "ms, " +
+                "eager loaded " + _eagerCount + " in " + toMillis(_eagerNanos) + "ms, " +
+                "lazy loaded " + _lazyCount + " in " + toMillis(_lazyNanos) + "ms " +
+                "(max " + toMillis(_maxLazyNanos) + "ms)";
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.arena.IArenaPlayer;
+import com.jcwhatever.pvs.api.arena.IArenaPlayerGroup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+
+/**
+ * Assigns players that queue for an arena type to an arena of that type.
+ *
+ * <p>Joinable arenas of each type are kept in a set ordered by their cached
+ * number of available slots. A request is assigned to the arena with the fewest
+ * available slots that still fit the players, so partly filled lobbies are
+ * filled before empty arenas are used. Finding the arena is O(log N).</p>
+ *
+ * <p>A player in an {@link IArenaPlayerGroup} queues with the group and the group
+ * is joined to the same arena. Requests that cannot be assigned wait in queue
+ * order and are assigned when an arena of the type is updated.</p>
+ *
+ * <p>The cached slots of an arena must be updated using {@link #update} when
+ * players join or leave the arena, and when the arena starts, ends, is enabled
+ * or is disabled.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class ArenaMatchmaker {
+
+    private final Map<String, Pool> _pools = new HashMap<>(10);
+    private final Map<IArena, Entry> _entries = new IdentityHashMap<>(35);
+    private final Map<IArenaPlayer, Pool> _waiting = new IdentityHashMap<>(35);
+    private long _nextOrder;
+    private boolean _isJoining;
+
+    /**
+     * Register an arena as an instance of an arena type.
+     *
+     * @param arena     The arena.
+     * @param typeName  The case insensitive name of the arena type.
+     */
+    public void register(IArena arena, String typeName) {
+        PreCon.notNull(arena);
+        PreCon.notNullOrEmpty(typeName);
+
+        unregister(arena);
+
+        String key = typeName.toLowerCase();
+
+        Pool pool = _pools.get(key);
+        if (pool == null) {
+            pool = new Pool();
+            _pools.put(key, pool);
+        }
+
+        Entry entry = new Entry(arena, pool, _nextOrder++);
+        _entries.put(arena, entry);
+        pool.registered++;
+
+        update(arena);
+    }
+
+    /**
+     * Unregister an arena.
+     *
+     * @param arena  The arena.
+     *
+     * @return  True if the arena was registered.
+     */
+    public boolean unregister(IArena arena) {
+        PreCon.notNull(arena);
+
+        Entry entry = _entries.remove(arena);
+        if (entry == null)
+            return false;
+
+        if (entry.isJoinable)
+            entry.pool.arenas.remove(entry);
+
+        entry.pool.registered--;
+        return true;
+    }
+
+    /**
+     * Get the number of registered arenas of a type.
+     *
+     * @param typeName  The case insensitive name of the arena type.
+     */
+    public int getArenaCount(String typeName) {
+        PreCon.notNull(typeName);
+
+        Pool pool = _pools.get(typeName.toLowerCase());
+        return pool != null ? pool.registered : 0;
+    }
+
+    /**
+     * Get the number of requests waiting for an arena of a type.
+     *
+     * @param typeName  The case insensitive name of the arena type.
+     */
+    public int getWaitingCount(String typeName) {
+        PreCon.notNull(typeName);
+
+        Pool pool = _pools.get(typeName.toLowerCase());
+        return pool != null ? pool.waiting.size() : 0;
+    }
+
+    /**
+     * Determine if a player is waiting for an arena.
+     *
+     * @param player  The player.
+     */
+    public boolean isWaiting(IArenaPlayer player) {
+        PreCon.notNull(player);
+
+        return _waiting.containsKey(player);
+    }
+
+    /**
+     * Refresh the cached slots of an arena, then assign waiting requests.
+     *
+     * @param arena  The arena.
+     */
+    public void update(IArena arena) {
+        PreCon.notNull(arena);
+
+        Entry entry = _entries.get(arena);
+        if (entry == null)
+            return;
+
+        refresh(entry);
+
+        // not while joining, join events update the arena
+        if (entry.isJoinable && !_isJoining && !entry.pool.waiting.isEmpty())
+            assignWaiting(entry.pool);
+    }
+
+    /**
+     * Find the arena of a type a number of players would be assigned to.
+     *
+     * @param typeName  The case insensitive name of the arena type.
+     * @param size      The number of players.
+     *
+     * @return  The arena or null if no arena of the type can fit the players.
+     */
+    @Nullable
+    public IArena find(String typeName, int size) {
+        PreCon.notNull(typeName);
+        PreCon.greaterThanZero(size);
+
+        Pool pool = _pools.get(typeName.toLowerCase());
+        if (pool == null)
+            return null;
+
+        Entry entry = find(pool, size);
+        return entry != null ? entry.arena : null;
+    }
+
+    /**
+     * Queue a player, and the players group, for an arena of a type.
+     *
+     * <p>The players are joined immediately if an arena can fit them.
+     * Otherwise the request waits until an arena is available.</p>
+     *
+     * <p>If the arena refuses any of the players, the players that joined
+     * leave the arena and the request waits.</p>
+     *
+     * @param player    The player.
+     * @param typeName  The case insensitive name of the arena type.
+     *
+     * @return  True if the players were joined to an arena, false if the
+     * request is waiting.
+     *
+     * @throws IllegalArgumentException if the type has no registered arenas.
+     */
+    public boolean queue(IArenaPlayer player, String typeName) {
+        PreCon.notNull(player);
+        PreCon.notNullOrEmpty(typeName);
+
+        Pool pool = _pools.get(typeName.toLowerCase());
+        if (pool == null)
+            throw new IllegalArgumentException("Arena type has no registered arenas: " + typeName);
+
+        dequeue(player);
+
+        if (tryJoin(pool, player))
+            return true;
+
+        pool.waiting.add(player);
+        _waiting.put(player, pool);
+        return false;
+    }
+
+    /**
+     * Remove a waiting request.
+     *
+     * @param player  The player that queued.
+     *
+     * @return  True if the request was waiting and is removed.
+     */
+    public boolean dequeue(IArenaPlayer player) {
+        PreCon.notNull(player);
+
+        Pool pool = _waiting.remove(player);
+        if (pool == null)
+            return false;
+
+        pool.waiting.remove(player);
+        return true;
+    }
+
+    /**
+     * Remove all arenas and waiting requests.
+     */
+    public void clear() {
+        _pools.clear();
+        _entries.clear();
+        _waiting.clear();
+    }
+
+    private void assignWaiting(Pool pool) {
+
+        // in queue order, smaller requests may be assigned ahead
+        // of larger requests that do not fit yet.
+        // iterate a copy, join event handlers may queue or dequeue players
+        List<IArenaPlayer> waiting = new ArrayList<>(pool.waiting);
+
+        for (IArenaPlayer player : waiting) {
+            if (pool.arenas.isEmpty())
+                break;
+
+            // dequeued or queued for another type by a join event handler
+            if (_waiting.get(player) != pool)
+                continue;
+
+            if (tryJoin(pool, player)) {
+                pool.waiting.remove(player);
+                _waiting.remove(player);
+            }
+        }
+    }
+
+    private boolean tryJoin(Pool pool, IArenaPlayer player) {
+
+        List<IArenaPlayer> players = getJoining(player);
+        if (players.isEmpty())
+            return true;
+
+        Entry entry = find(pool, players.size());
+        if (entry == null)
+            return false;
+
+        boolean isJoined = true;
+
+        _isJoining = true;
+        try {
+            for (int i = 0; i < players.size(); i++) {
+                if (entry.arena.join(players.get(i)))
+                    continue;
+
+                // join refused, remove the members that joined so the
+                // group is not split and the request stays queued
+                for (int j = 0; j < i; j++) {
+                    IArenaPlayer joined = players.get(j);
+                    if (joined.getArena() == entry.arena)
+                        joined.leaveArena();
+                }
+
+                isJoined = false;
+                break;
+            }
+        }
+        finally {
+            _isJoining = false;
+        }
+
+        refresh(entry);
+        return isJoined;
+    }
+
+    /*
+     * Find the joinable arena with the fewest available slots that fit
+     * the players, refreshing stale cached slots along the way.
+     */
+    @Nullable
+    private Entry find(Pool pool, int size) {
+
+        Entry probe = new Entry(size);
+
+        while (true) {
+            Entry entry = pool.arenas.ceiling(probe);
+            if (entry == null)
+                return null;
+
+            IArena arena = entry.arena;
+            if (arena.canJoin() && arena.getAvailableSlots() == entry.slots)
+                return entry;
+
+            // cached slots are stale, reposition and search again
+            refresh(entry);
+        }
+    }
+
+    private void refresh(Entry entry) {
+
+        if (entry.isJoinable)
+            entry.pool.arenas.remove(entry);
+
+        entry.slots = entry.arena.getAvailableSlots();
+        entry.isJoinable = entry.slots > 0 && entry.arena.canJoin();
+
+        if (entry.isJoinable)
+            entry.pool.arenas.add(entry);
+    }
+
+    /*
+     * Get the player and the players group members that are not in an arena.
+     */
+    private static List<IArenaPlayer> getJoining(IArenaPlayer player) {
+
+        IArenaPlayerGroup group = player.getPlayerGroup();
+        List<IArenaPlayer> players = new ArrayList<>(group != null ? group.size() : 1);
+
+        if (group == null) {
+            if (player.getArena() == null)
+                players.add(player);
+            return players;
+        }
+
+        for (IArenaPlayer member : group.getPlayers()) {
+            if (member.getArena() == null)
+                players.add(member);
+        }
+        return players;
+    }
+
+    private static final Comparator<Entry> SLOT_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry o1, Entry o2) {
+            if (o1.slots != o2.slots)
+                return Integer.compare(o1.slots, o2.slots);
+
+            return Long.compare(o1.order, o2.order);
+        }
+    };
+
+    private static class Pool {
+        final TreeSet<Entry> arenas = new TreeSet<>(SLOT_COMPARATOR);
+        final Set<IArenaPlayer> waiting = new LinkedHashSet<>(10);
+        int registered;
+    }
+
+    private static class Entry {
+        final IArena arena;
+        final Pool pool;
+        final long order;
+        int slots;
+        boolean isJoinable;
+
+        Entry(IArena arena, Pool pool, long order) {
+            this.arena = arena;
+            this.pool = pool;
+            this.order = order;
+        }
+
+        // search probe
+        Entry(int slots) {
+            this.arena = null;
+            this.pool = null;
+            this.order = Long.MIN_VALUE;
+            this.slots = slots;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.mixins.INamedInsensitive;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.arena.IArenaInfo;
+import com.jcwhatever.pvs.api.arena.options.NameMatchMode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of arena names for matching by {@link NameMatchMode}.
+ *
+ * <p>Indexes {@link IArena} or {@link IArenaInfo} instances so names can be
+ * matched without loading arenas.</p>
+ *
+ * <p>Names are case folded using {@link INamedInsensitive#getSearchName}. Prefix
+ * matches walk a trie to the prefix node and collect the arenas below it. Search matches
+ * look up the postings of the substrings of the search pattern of up to
+ * three characters, so only arenas that can contain the pattern are checked.</p>
+ *
+ * <p>An arena must be updated when its name changes and removed when the
+ * arena is removed.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ *
+ * @param <T>  The indexed arena type.
+ */
+public class ArenaNameIndex<T extends INamedInsensitive> {
+
+    // max length of indexed substrings
+    private static final int GRAM_SIZE = 3;
+
+    private final Node<T> _root = new Node<>();
+    private final Map<String, List<T>> _exact = new HashMap<>(35);
+    private final Map<String, Set<T>> _grams = new HashMap<>(100);
+    private final Map<T, String> _names = new IdentityHashMap<>(35);
+
+    /**
+     * Get the number of indexed arenas.
+     */
+    public int size() {
+        return _names.size();
+    }
+
+    /**
+     * Add an arena or update the name of an indexed arena.
+     *
+     * @param arena  The arena.
+     */
+    public void update(T arena) {
+        PreCon.notNull(arena);
+
+        remove(arena);
+
+        String name = arena.getSearchName();
+        _names.put(arena, name);
+
+        List<T> exact = _exact.get(name);
+        if (exact == null) {
+            exact = new ArrayList<>(1);
+            _exact.put(name, exact);
+        }
+        exact.add(arena);
+
+        Node<T> node = _root;
+        for (int i = 0; i < name.length(); i++)
+            node = node.getOrAddChild(name.charAt(i));
+        node.arenas.add(arena);
+
+        for (String gram : getGrams(name)) {
+            Set<T> postings = _grams.get(gram);
+            if (postings == null) {
+                postings = new HashSet<>(5);
+                _grams.put(gram, postings);
+            }
+            postings.add(arena);
+        }
+    }
+
+    /**
+     * Remove an arena.
+     *
+     * @param arena  The arena.
+     *
+     * @return  True if the arena was indexed.
+     */
+    public boolean remove(T arena) {
+        PreCon.notNull(arena);
+
+        String name = _names.remove(arena);
+        if (name == null)
+            return false;
+
+        List<T> exact = _exact.get(name);
+        if (exact != null) {
+            exact.remove(arena);
+            if (exact.isEmpty())
+                _exact.remove(name);
+        }
+
+        removeFromTrie(_root, name, 0, arena);
+
+        for (String gram : getGrams(name)) {
+            Set<T> postings = _grams.get(gram);
+            if (postings == null)
+                continue;
+
+            postings.remove(arena);
+            if (postings.isEmpty())
+                _grams.remove(gram);
+        }
+
+        return true;
+    }
+
+    /**
+     * Remove all arenas.
+     */
+    public void clear() {
+        _root.children.clear();
+        _root.arenas.clear();
+        _exact.clear();
+        _grams.clear();
+        _names.clear();
+    }
+
+    /**
+     * Get arenas by name.
+     *
+     * @param name       The name or search pattern.
+     * @param matchMode  The match mode.
+     */
+    public List<T> get(String name, NameMatchMode matchMode) {
+        PreCon.notNull(name);
+        PreCon.notNull(matchMode);
+
+        String searchName = name.toLowerCase();
+
+        switch (matchMode) {
+            case CASE_SENSITIVE:
+                return getExact(name, searchName);
+            case CASE_INSENSITIVE:
+                List<T> exact = _exact.get(searchName);
+                return exact != null ? new ArrayList<>(exact) : new ArrayList<T>(0);
+            case BEGINS_WITH:
+                return getPrefix(searchName);
+            case SEARCH:
+                return getContains(searchName);
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    private List<T> getExact(String name, String searchName) {
+
+        List<T> exact = _exact.get(searchName);
+        if (exact == null)
+            return new ArrayList<>(0);
+
+        List<T> result = new ArrayList<>(exact.size());
+        for (T arena : exact) {
+            if (arena.getName().equals(name))
+                result.add(arena);
+        }
+        return result;
+    }
+
+    private List<T> getPrefix(String prefix) {
+
+        Node<T> node = _root;
+        for (int i = 0; i < prefix.length() && node != null; i++)
+            node = node.children.get(prefix.charAt(i));
+
+        List<T> result = new ArrayList<>(node != null ? 10 : 0);
+
+        if (node != null)
+            collect(node, result);
+
+        return result;
+    }
+
+    private List<T> getContains(String pattern) {
+
+        if (pattern.isEmpty())
+            return new ArrayList<>(_names.keySet());
+
+        if (pattern.length() <= GRAM_SIZE) {
+            // every arena in the postings contains the pattern
+            Set<T> postings = _grams.get(pattern);
+            return postings != null ? new ArrayList<>(postings) : new ArrayList<T>(0);
+        }
+
+        // candidates must contain every gram of the pattern,
+        // start with the smallest postings
+        Set<T> smallest = null;
+        for (int i = 0; i <= pattern.length() - GRAM_SIZE; i++) {
+            Set<T> postings = _grams.get(pattern.substring(i, i + GRAM_SIZE));
+            if (postings == null)
+                return new ArrayList<>(0);
+
+            if (smallest == null || postings.size() < smallest.size())
+                smallest = postings;
+        }
+
+        List<T> result = new ArrayList<>(smallest.size());
+        for (T arena : smallest) {
+            if (_names.get(arena).contains(pattern))
+                result.add(arena);
+        }
+        return result;
+    }
+
+    private static <T> void collect(Node<T> node, Collection<T> output) {
+        output.addAll(node.arenas);
+
+        for (Node<T> child : node.children.values())
+            collect(child, output);
+    }
+
+    /*
+     * Returns true if the node is empty after the arena is removed.
+     */
+    private static <T> boolean removeFromTrie(Node<T> node, String name, int index, T arena) {
+
+        if (index == name.length()) {
+            node.arenas.remove(arena);
+        }
+        else {
+            char ch = name.charAt(index);
+            Node<T> child = node.children.get(ch);
+
+            if (child != null && removeFromTrie(child, name, index + 1, arena))
+                node.children.remove(ch);
+        }
+
+        return node.arenas.isEmpty() && node.children.isEmpty();
+    }
+
+    /*
+     * Get the distinct substrings of a name of 1 to GRAM_SIZE characters.
+     */
+    private static Set<String> getGrams(String name) {
+        Set<String> grams = new HashSet<>(name.length() * GRAM_SIZE);
+
+        for (int size = 1; size <= GRAM_SIZE; size++) {
+            for (int i = 0; i <= name.length() - size; i++)
+                grams.add(name.substring(i, i + size));
+        }
+
+        return grams;
+    }
+
+    private static class Node<T> {
+        final Map<Character, Node<T>> children = new HashMap<>(4);
+        final List<T> arenas = new ArrayList<>(1);
+
+        Node<T> getOrAddChild(char ch) {
+            Node<T> child = children.get(ch);
+            if (child == null) {
+                child = new Node<>();
+                children.put(ch, child);
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.arena.IArenaPlayer;
+import com.jcwhatever.pvs.api.arena.context.IContextManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * A map of player ID to the arena the player is in.
+ *
+ * <p>Finding the arena a player is in is a single hash lookup instead of
+ * checking the players of every arena.</p>
+ *
+ * <p>The index must be updated when a
+ * {@link com.jcwhatever.pvs.api.events.players.PlayerJoinedArenaEvent} or
+ * {@link com.jcwhatever.pvs.api.events.players.PlayerLeaveArenaEvent} is called,
+ * including when a player is forwarded between arenas. Use
+ * {@link #remove(UUID, IArena)} when a player leaves so a leave event called
+ * after the player joins the next arena does not remove the new entry.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class ArenaPlayerIndex {
+
+    private final Map<UUID, IArena> _arenas = new HashMap<>(100);
+
+    /**
+     * Get the number of indexed players.
+     */
+    public int size() {
+        return _arenas.size();
+    }
+
+    /**
+     * Get the arena a player is in.
+     *
+     * @param playerId  The ID of the player.
+     *
+     * @return  The arena or null if the player is not in an arena.
+     */
+    @Nullable
+    public IArena get(UUID playerId) {
+        PreCon.notNull(playerId);
+
+        return _arenas.get(playerId);
+    }
+
+    /**
+     * Set the arena a player is in.
+     *
+     * @param playerId  The ID of the player.
+     * @param arena     The arena.
+     *
+     * @return  The arena the player was previously indexed in, if any.
+     */
+    @Nullable
+    public IArena put(UUID playerId, IArena arena) {
+        PreCon.notNull(playerId);
+        PreCon.notNull(arena);
+
+        return _arenas.put(playerId, arena);
+    }
+
+    /**
+     * Remove a player if the player is indexed in the specified arena.
+     *
+     * @param playerId  The ID of the player.
+     * @param arena     The arena the player is leaving.
+     *
+     * @return  True if the player was removed.
+     */
+    public boolean remove(UUID playerId, IArena arena) {
+        PreCon.notNull(playerId);
+        PreCon.notNull(arena);
+
+        if (!arena.equals(_arenas.get(playerId)))
+            return false;
+
+        _arenas.remove(playerId);
+        return true;
+    }
+
+    /**
+     * Remove a player.
+     *
+     * @param playerId  The ID of the player.
+     *
+     * @return  The arena the player was indexed in, if any.
+     */
+    @Nullable
+    public IArena remove(UUID playerId) {
+        PreCon.notNull(playerId);
+
+        return _arenas.remove(playerId);
+    }
+
+    /**
+     * Remove all players indexed in an arena.
+     *
+     * <p>Invoked when an arena is removed.</p>
+     *
+     * @param arena  The arena.
+     *
+     * @return  The number of players removed.
+     */
+    public int removeArena(IArena arena) {
+        PreCon.notNull(arena);
+
+        int removed = 0;
+
+        Iterator<IArena> iterator = _arenas.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().equals(arena)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Remove all players.
+     */
+    public void clear() {
+        _arenas.clear();
+    }
+
+    /**
+     * Compare the index to the players in the specified arenas.
+     *
+     * <p>Intended for debugging. Checks every arena context, so it
+     * should not be used on a hot path.</p>
+     *
+     * @param arenas  All arenas.
+     *
+     * @return  A description of each inconsistency found. Empty if the
+     * index is consistent.
+     */
+    public List<String> checkConsistency(Collection<IArena> arenas) {
+        PreCon.notNull(arenas);
+
+        List<String> problems = new ArrayList<>(0);
+        Set<UUID> found = new HashSet<>(_arenas.size());
+
+        for (IArena arena : arenas) {
+            checkContext(arena, arena.getLobby(), found, problems);
+            checkContext(arena, arena.getGame(), found, problems);
+            checkContext(arena, arena.getSpectators(), found, problems);
+        }
+
+        for (Map.Entry<UUID, IArena> entry : _arenas.entrySet()) {
+            if (!found.contains(entry.getKey())) {
+                problems.add("Player " + entry.getKey() + " is indexed in arena " +
+                        entry.getValue().getName() + " but is not in any arena.");
+            }
+        }
+
+        return problems;
+    }
+
+    private void checkContext(IArena arena, IContextManager context,
+                              Set<UUID> found, List<String> problems) {
+
+        for (IArenaPlayer player : context.getPlayers()) {
+            UUID playerId = player.getUniqueId();
+
+            if (!found.add(playerId)) {
+                problems.add("Player " + player.getName() + " is in more than one arena context.");
+                continue;
+            }
+
+            IArena indexed = _arenas.get(playerId);
+            if (indexed == null) {
+                problems.add("Player " + player.getName() + " is in arena " +
+                        arena.getName() + " but is not indexed.");
+            }
+            else if (!indexed.equals(arena)) {
+                problems.add("Player " + player.getName() + " is in arena " + arena.getName() +
+                        " but is indexed in arena " + indexed.getName() + '.');
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.ArenaRegion;
+import com.jcwhatever.pvs.api.arena.IArenaInfo;
+import com.jcwhatever.pvs.api.arena.region.RegionBounds;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * A chunk keyed lookup table of {@link ArenaRegion} bounds, partitioned by world.
+ *
+ * <p>Each region is added to every chunk it overlaps. Finding the region that
+ * contains a location is a hash lookup of the locations chunk followed by a
+ * bounds check of the few regions in that chunk.</p>
+ *
+ * <p>Region bounds are copied when a region is added. The region must be
+ * updated when its bounds change, i.e. when an
+ * {@link com.jcwhatever.pvs.api.events.region.ArenaRegionDefinedEvent} is called,
+ * and removed when its arena is removed.</p>
+ *
+ * <p>When arenas are lazy loaded, the {@link IArenaInfo} stub of an arena that is
+ * not loaded is indexed by its saved {@link RegionBounds} so a region hit can be
+ * found using {@link #getInfo} without scanning every stub. A stub should be
+ * removed when its arena is loaded and its region is added.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class ArenaRegionIndex {
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final Map<String, Map<Long, Entry[]>> _worlds = new HashMap<>(5);
+    private final Map<Object, Entry> _entries = new IdentityHashMap<>(35);
+
+    /**
+     * Get the number of indexed regions and arena stubs.
+     */
+    public int size() {
+        return _entries.size();
+    }
+
+    /**
+     * Determine if a region is indexed.
+     *
+     * @param region  The region.
+     */
+    public boolean contains(ArenaRegion region) {
+        PreCon.notNull(region);
+
+        return _entries.containsKey(region);
+    }
+
+    /**
+     * Determine if an arena stub is indexed.
+     *
+     * @param info  The arena info.
+     */
+    public boolean contains(IArenaInfo info) {
+        PreCon.notNull(info);
+
+        return _entries.containsKey(info);
+    }
+
+    /**
+     * Add a region or update the bounds of an indexed region.
+     *
+     * <p>A region that is not defined is removed.</p>
+     *
+     * @param region  The region.
+     *
+     * @return  True if the region is indexed.
+     */
+    public boolean update(ArenaRegion region) {
+        PreCon.notNull(region);
+
+        return add(region, RegionBounds.of(region));
+    }
+
+    /**
+     * Add the stub of an arena that is not loaded or update the bounds
+     * of an indexed stub.
+     *
+     * <p>A stub whose saved region is not defined is removed.</p>
+     *
+     * @param info  The arena info.
+     *
+     * @return  True if the stub is indexed.
+     */
+    public boolean update(IArenaInfo info) {
+        PreCon.notNull(info);
+
+        return add(info, info.getRegionBounds());
+    }
+
+    /**
+     * Remove a region.
+     *
+     * @param region  The region.
+     *
+     * @return  True if the region was indexed.
+     */
+    public boolean remove(ArenaRegion region) {
+        PreCon.notNull(region);
+
+        return removeOwner(region);
+    }
+
+    /**
+     * Remove an arena stub.
+     *
+     * @param info  The arena info.
+     *
+     * @return  True if the stub was indexed.
+     */
+    public boolean remove(IArenaInfo info) {
+        PreCon.notNull(info);
+
+        return removeOwner(info);
+    }
+
+    /**
+     * Remove all regions and arena stubs.
+     */
+    public void clear() {
+        _worlds.clear();
+        _entries.clear();
+    }
+
+    /**
+     * Get the region that contains a location.
+     *
+     * @param location  The location.
+     *
+     * @return  The region or null if the location is not in an indexed region.
+     */
+    @Nullable
+    public ArenaRegion get(Location location) {
+        PreCon.notNull(location);
+
+        World world = location.getWorld();
+        if (world == null)
+            return null;
+
+        return get(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Get the region that contains a block location.
+     *
+     * @param world  The world.
+     * @param x      The block X coordinates.
+     * @param y      The block Y coordinates.
+     * @param z      The block Z coordinates.
+     *
+     * @return  The region or null if the location is not in an indexed region.
+     */
+    @Nullable
+    public ArenaRegion get(World world, int x, int y, int z) {
+        PreCon.notNull(world);
+
+        return (ArenaRegion) find(world, x, y, z, ArenaRegion.class);
+    }
+
+    /**
+     * Get the stub of the arena whose saved region contains a location.
+     *
+     * @param location  The location.
+     *
+     * @return  The arena info or null if the location is not in an indexed stubs region.
+     */
+    @Nullable
+    public IArenaInfo getInfo(Location location) {
+        PreCon.notNull(location);
+
+        World world = location.getWorld();
+        if (world == null)
+            return null;
+
+        return (IArenaInfo) find(world, location.getBlockX(), location.getBlockY(),
+                location.getBlockZ(), IArenaInfo.class);
+    }
+
+    private boolean add(Object owner, @Nullable RegionBounds bounds) {
+
+        removeOwner(owner);
+
+        if (bounds == null)
+            return false;
+
+        Entry entry = new Entry(owner, bounds);
+
+        Map<Long, Entry[]> chunks = _worlds.get(bounds.getWorldName());
+        if (chunks == null) {
+            chunks = new HashMap<>(100);
+            _worlds.put(bounds.getWorldName(), chunks);
+        }
+
+        for (int x = bounds.getMinX() >> 4; x <= bounds.getMaxX() >> 4; x++) {
+            for (int z = bounds.getMinZ() >> 4; z <= bounds.getMaxZ() >> 4; z++) {
+                Long key = chunkKey(x, z);
+
+                Entry[] current = chunks.get(key);
+                if (current == null) {
+                    chunks.put(key, new Entry[] { entry });
+                }
+                else {
+                    Entry[] added = Arrays.copyOf(current, current.length + 1);
+                    added[current.length] = entry;
+                    chunks.put(key, added);
+                }
+            }
+        }
+
+        _entries.put(owner, entry);
+
+        return true;
+    }
+
+    private boolean removeOwner(Object owner) {
+
+        Entry entry = _entries.remove(owner);
+        if (entry == null)
+            return false;
+
+        RegionBounds bounds = entry.bounds;
+
+        Map<Long, Entry[]> chunks = _worlds.get(bounds.getWorldName());
+        if (chunks == null)
+            return true;
+
+        for (int x = bounds.getMinX() >> 4; x <= bounds.getMaxX() >> 4; x++) {
+            for (int z = bounds.getMinZ() >> 4; z <= bounds.getMaxZ() >> 4; z++) {
+                Long key = chunkKey(x, z);
+
+                Entry[] current = chunks.get(key);
+                if (current == null)
+                    continue;
+
+                Entry[] removed = without(current, entry);
+                if (removed.length == 0) {
+                    chunks.remove(key);
+                }
+                else {
+                    chunks.put(key, removed);
+                }
+            }
+        }
+
+        if (chunks.isEmpty())
+            _worlds.remove(bounds.getWorldName());
+
+        return true;
+    }
+
+    @Nullable
+    private Object find(World world, int x, int y, int z, Class<?> ownerClass) {
+
+        Map<Long, Entry[]> chunks = _worlds.get(world.getName());
+        if (chunks == null)
+            return null;
+
+        Entry[] entries = chunks.get(chunkKey(x >> 4, z >> 4));
+        if (entries == null)
+            return null;
+
+        for (Entry entry : entries) {
+            if (ownerClass.isInstance(entry.owner) && entry.bounds.contains(x, y, z))
+                return entry.owner;
+        }
+
+        return null;
+    }
+
+    private static Entry[] without(Entry[] entries, Entry entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] != entry)
+                continue;
+
+            if (entries.length == 1)
+                return NO_ENTRIES;
+
+            Entry[] result = new Entry[entries.length - 1];
+            System.arraycopy(entries, 0, result, 0, i);
+            System.arraycopy(entries, i + 1, result, i, entries.length - i - 1);
+            return result;
+        }
+        return entries;
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /*
+     * An indexed ArenaRegion or IArenaInfo and its copied bounds.
+     */
+    private static class Entry {
+        final Object owner;
+        final RegionBounds bounds;
+
+        Entry(Object owner, RegionBounds bounds) {
+            this.owner = owner;
+            this.bounds = bounds;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.Nucleus;
+import com.jcwhatever.nucleus.events.manager.EventMethod;
+import com.jcwhatever.nucleus.events.manager.IEventListener;
+import com.jcwhatever.nucleus.managed.scheduler.IScheduledTask;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.observer.future.FutureResultAgent;
+import com.jcwhatever.nucleus.utils.observer.future.IFutureResult;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.events.ArenaEndedEvent;
+import com.jcwhatever.pvs.api.spawns.Spawnpoint;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Queues entity spawn requests for an arena and spawns them over multiple
+ * ticks under a per tick entity and time budget.
+ *
+ * <p>Used by wave based arenas to spread spawning from many spawner
+ * spawnpoints instead of spawning everything in the same tick.</p>
+ *
+ * <p>Queued spawns are cancelled when an {@link ArenaEndedEvent} is called
+ * for the arena.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class ArenaSpawnQueue {
+
+    /**
+     * The default max number of entities spawned per tick.
+     */
+    public static final int DEFAULT_ENTITIES_PER_TICK = 10;
+
+    /**
+     * The default max time in nanoseconds spent spawning per tick.
+     */
+    public static final long DEFAULT_NANOS_PER_TICK = 2000000L;
+
+    private final IArena _arena;
+    private final Deque<SpawnJob> _jobs = new ArrayDeque<>(25);
+
+    private int _maxEntitiesPerTick = DEFAULT_ENTITIES_PER_TICK;
+    private long _maxNanosPerTick = DEFAULT_NANOS_PER_TICK;
+    private int _queuedEntities;
+    private long _totalSpawned;
+    private IScheduledTask _task;
+
+    /**
+     * Constructor.
+     *
+     * @param arena  The arena to spawn entities for.
+     */
+    public ArenaSpawnQueue(IArena arena) {
+        PreCon.notNull(arena);
+
+        _arena = arena;
+        _arena.getEventManager().register(new GameEndListener());
+    }
+
+    /**
+     * Get the arena the queue spawns entities for.
+     */
+    public IArena getArena() {
+        return _arena;
+    }
+
+    /**
+     * Get the max number of entities spawned per tick.
+     */
+    public int getMaxEntitiesPerTick() {
+        return _maxEntitiesPerTick;
+    }
+
+    /**
+     * Set the max number of entities spawned per tick.
+     *
+     * @param max  The max entities.
+     */
+    public void setMaxEntitiesPerTick(int max) {
+        PreCon.greaterThanZero(max);
+
+        _maxEntitiesPerTick = max;
+    }
+
+    /**
+     * Get the max time in nanoseconds spent spawning per tick.
+     */
+    public long getMaxNanosPerTick() {
+        return _maxNanosPerTick;
+    }
+
+    /**
+     * Set the max time in nanoseconds spent spawning per tick.
+     *
+     * <p>At least one entity is spawned per tick regardless of the time budget.</p>
+     *
+     * @param nanos  The max time in nanoseconds.
+     */
+    public void setMaxNanosPerTick(long nanos) {
+        PreCon.greaterThanZero(nanos);
+
+        _maxNanosPerTick = nanos;
+    }
+
+    /**
+     * Get the number of spawnpoint jobs waiting in the queue.
+     */
+    public int getQueuedJobs() {
+        return _jobs.size();
+    }
+
+    /**
+     * Get the number of entities waiting to be spawned.
+     */
+    public int getQueuedEntities() {
+        return _queuedEntities;
+    }
+
+    /**
+     * Get the total number of entities spawned by the queue.
+     */
+    public long getTotalSpawned() {
+        return _totalSpawned;
+    }
+
+    /**
+     * Queue entities to be spawned at a spawnpoint.
+     *
+     * @param spawn  The spawnpoint.
+     * @param count  The number of entities to spawn.
+     *
+     * @return  A future that receives the spawned entities when all are spawned.
+     */
+    public IFutureResult<List<Entity>> spawn(Spawnpoint spawn, int count) {
+        PreCon.notNull(spawn);
+        PreCon.greaterThanZero(count);
+
+        SpawnBatch batch = new SpawnBatch(1, count);
+        enqueue(new SpawnJob(batch, spawn, count));
+
+        return batch.agent.getFuture();
+    }
+
+    /**
+     * Queue entities to be spawned at each spawnpoint in a collection.
+     *
+     * @param spawns  The spawnpoints.
+     * @param count   The number of entities to spawn at each spawnpoint.
+     *
+     * @return  A future that receives the spawned entities when all are spawned.
+     */
+    public IFutureResult<List<Entity>> spawn(Collection<? extends Spawnpoint> spawns, int count) {
+        PreCon.notNull(spawns);
+        PreCon.greaterThanZero(count);
+
+        SpawnBatch batch = new SpawnBatch(spawns.size(), spawns.size() * count);
+
+        if (spawns.isEmpty()) {
+            batch.agent.success(batch.entities);
+            return batch.agent.getFuture();
+        }
+
+        for (Spawnpoint spawn : spawns)
+            enqueue(new SpawnJob(batch, spawn, count));
+
+        return batch.agent.getFuture();
+    }
+
+    /**
+     * Cancel all queued spawns.
+     *
+     * <p>Futures of unfinished requests are cancelled and receive the
+     * entities that were already spawned.</p>
+     */
+    public void cancelAll() {
+
+        while (!_jobs.isEmpty()) {
+            SpawnJob job = _jobs.removeFirst();
+
+            if (!job.batch.isDone) {
+                job.batch.isDone = true;
+                job.batch.agent.cancel(job.batch.entities, "Spawn queue cancelled.");
+            }
+        }
+
+        _queuedEntities = 0;
+        stopTask();
+    }
+
+    private void enqueue(SpawnJob job) {
+        _jobs.addLast(job);
+        _queuedEntities += job.remaining;
+
+        if (_task == null) {
+            _task = Nucleus.getScheduler().runTaskRepeat(PVStarAPI.getPlugin(), 1, 1, new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+        }
+    }
+
+    /*
+     * Spawn queued entities until the tick budget is used.
+     */
+    private void drain() {
+
+        long start = System.nanoTime();
+        int budget = _maxEntitiesPerTick;
+        SpawnGovernor governor = _arena.getSpawns().getGovernor();
+
+        // number of jobs in a row that are throttled by the governor
+        int throttled = 0;
+
+        while (budget > 0 && throttled < _jobs.size()) {
+
+            SpawnJob job = _jobs.peekFirst();
+
+            int count = Math.min(job.remaining, budget);
+
+            // throttle while the arena is at its entity ceiling
+            if (job.spawn.getSpawnType().isSpawner()) {
+                count = governor.getAllowed(job.spawn.getSpawnType(), count);
+                if (count == 0) {
+                    // move to the back so jobs of other spawn types are not starved
+                    _jobs.addLast(_jobs.removeFirst());
+                    throttled++;
+                    continue;
+                }
+            }
+
+            throttled = 0;
+
+            List<Entity> entities;
+            try {
+                entities = job.spawn.spawn(_arena, count);
+            }
+            catch (RuntimeException e) {
+                // remove the batch so it does not fail again every tick
+                failBatch(job.batch, e);
+                continue;
+            }
+
+            // spawn type is not a spawner, nothing to spawn
+            if (entities == null)
+                count = job.remaining;
+            else
+                job.batch.entities.addAll(entities);
+
+            job.remaining -= count;
+            budget -= count;
+            _queuedEntities -= count;
+            _totalSpawned += entities != null ? entities.size() : 0;
+
+            if (job.remaining == 0) {
+                _jobs.removeFirst();
+                job.batch.onJobComplete();
+            }
+
+            if (System.nanoTime() - start >= _maxNanosPerTick)
+                break;
+        }
+
+        if (_jobs.isEmpty())
+            stopTask();
+    }
+
+    /*
+     * Remove all queued jobs of a batch and complete its future with an error.
+     */
+    private void failBatch(SpawnBatch batch, RuntimeException error) {
+
+        Iterator<SpawnJob> iterator = _jobs.iterator();
+        while (iterator.hasNext()) {
+            SpawnJob job = iterator.next();
+            if (job.batch != batch)
+                continue;
+
+            _queuedEntities -= job.remaining;
+            iterator.remove();
+        }
+
+        PVStarAPI.getPlugin().getLogger().log(Level.WARNING,
+                "Failed to spawn queued entities in arena '" + _arena.getName() + "'.", error);
+
+        if (!batch.isDone) {
+            batch.isDone = true;
+            batch.agent.error(batch.entities, "Failed to spawn entities: " + error.getMessage());
+        }
+    }
+
+    private void stopTask() {
+        if (_task == null)
+            return;
+
+        _task.cancel();
+        _task = null;
+    }
+
+    private class GameEndListener implements IEventListener {
+
+        @Override
+        public Plugin getPlugin() {
+            return PVStarAPI.getPlugin();
+        }
+
+        @EventMethod
+        public void onArenaEnded(ArenaEndedEvent event) {
+            cancelAll();
+        }
+    }
+
+    private static class SpawnBatch {
+
+        final FutureResultAgent<List<Entity>> agent = new FutureResultAgent<>();
+        final List<Entity> entities;
+        int remainingJobs;
+        boolean isDone;
+
+        SpawnBatch(int totalJobs, int totalEntities) {
+            remainingJobs = totalJobs;
+            entities = new ArrayList<>(totalEntities);
+        }
+
+        void onJobComplete() {
+            remainingJobs--;
+            if (remainingJobs == 0 && !isDone) {
+                isDone = true;
+                agent.success(entities);
+            }
+        }
+    }
+
+    private static class SpawnJob {
+
+        final SpawnBatch batch;
+        final Spawnpoint spawn;
+        int remaining;
+
+        SpawnJob(SpawnBatch batch, Spawnpoint spawn, int count) {
+            this.batch = batch;
+            this.spawn = spawn;
+            this.remaining = count;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.Nucleus;
+import com.jcwhatever.nucleus.managed.scheduler.IScheduledTask;
+import com.jcwhatever.nucleus.managed.teleport.TeleportMode;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.observer.future.FutureResultAgent;
+import com.jcwhatever.nucleus.utils.observer.future.IFutureResult;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.arena.IArenaPlayer;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Teleports a large number of players into an arena over multiple ticks.
+ *
+ * <p>The chunks of all destinations are loaded first, a limited number per tick,
+ * so that teleports do not force synchronous chunk loads. Players are then
+ * teleported a limited number per tick.</p>
+ *
+ * <p>Used when a game starts so that moving many players from the lobby to the
+ * game spawns does not happen in a single tick.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class BulkTeleport {
+
+    /**
+     * The default number of chunks loaded per tick.
+     */
+    public static final int DEFAULT_CHUNKS_PER_TICK = 8;
+
+    /**
+     * The default number of players teleported per tick.
+     */
+    public static final int DEFAULT_TELEPORTS_PER_TICK = 10;
+
+    private final IArena _arena;
+    private final TeleportMode _mode;
+    private final List<IArenaPlayer> _players = new ArrayList<>(25);
+    private final List<Location> _destinations = new ArrayList<>(25);
+    private final FutureResultAgent<Integer> _agent = new FutureResultAgent<>();
+
+    private int _chunksPerTick = DEFAULT_CHUNKS_PER_TICK;
+    private int _teleportsPerTick = DEFAULT_TELEPORTS_PER_TICK;
+
+    private List<ChunkCoords> _chunks;
+    private int _chunkIndex;
+    private int _playerIndex;
+    private int _teleported;
+    private IScheduledTask _task;
+
+    /**
+     * Constructor.
+     *
+     * @param arena  The arena the players are teleported into.
+     * @param mode   The teleport mode.
+     */
+    public BulkTeleport(IArena arena, TeleportMode mode) {
+        PreCon.notNull(arena);
+        PreCon.notNull(mode);
+
+        _arena = arena;
+        _mode = mode;
+    }
+
+    /**
+     * Get the arena the players are teleported into.
+     */
+    public IArena getArena() {
+        return _arena;
+    }
+
+    /**
+     * Set the max number of chunks loaded per tick.
+     *
+     * @param chunks  The number of chunks.
+     */
+    public BulkTeleport setChunksPerTick(int chunks) {
+        PreCon.greaterThanZero(chunks);
+
+        _chunksPerTick = chunks;
+        return this;
+    }
+
+    /**
+     * Set the max number of players teleported per tick.
+     *
+     * @param teleports  The number of teleports.
+     */
+    public BulkTeleport setTeleportsPerTick(int teleports) {
+        PreCon.greaterThanZero(teleports);
+
+        _teleportsPerTick = teleports;
+        return this;
+    }
+
+    /**
+     * Add a player to teleport.
+     *
+     * @param player       The player.
+     * @param destination  The teleport destination.
+     */
+    public BulkTeleport add(IArenaPlayer player, Location destination) {
+        PreCon.notNull(player);
+        PreCon.notNull(destination);
+        PreCon.isValid(_task == null && _chunks == null, "Cannot add players after the teleport has started.");
+
+        _players.add(player);
+        _destinations.add(destination);
+        return this;
+    }
+
+    /**
+     * Get the number of players to teleport.
+     */
+    public int size() {
+        return _players.size();
+    }
+
+    /**
+     * Determine if the teleport is running.
+     */
+    public boolean isRunning() {
+        return _task != null;
+    }
+
+    /**
+     * Start loading chunks and teleporting players.
+     *
+     * @return  A future that receives the number of players teleported once
+     * all teleports are finished.
+     */
+    public IFutureResult<Integer> run() {
+        PreCon.isValid(_chunks == null, "Bulk teleport can only be run once.");
+
+        // collect the unique chunks of all destinations
+        Set<ChunkCoords> chunks = new HashSet<>(_destinations.size());
+        for (Location destination : _destinations) {
+            if (destination.getWorld() == null)
+                continue;
+
+            chunks.add(new ChunkCoords(destination.getWorld(),
+                    destination.getBlockX() >> 4, destination.getBlockZ() >> 4));
+        }
+        _chunks = new ArrayList<>(chunks);
+
+        if (_players.isEmpty()) {
+            _agent.success(0);
+            return _agent.getFuture();
+        }
+
+        _task = Nucleus.getScheduler().runTaskRepeat(PVStarAPI.getPlugin(), 1, 1, new Runnable() {
+            @Override
+            public void run() {
+                step();
+            }
+        });
+
+        return _agent.getFuture();
+    }
+
+    /**
+     * Cancel the teleport.
+     *
+     * <p>Players that are not yet teleported are left where they are.</p>
+     */
+    public void cancel() {
+        if (_task == null)
+            return;
+
+        _task.cancel();
+        _task = null;
+        _agent.cancel(_teleported, "Bulk teleport cancelled.");
+    }
+
+    private void step() {
+
+        // prewarm chunks
+        if (_chunkIndex < _chunks.size()) {
+
+            int end = Math.min(_chunkIndex + _chunksPerTick, _chunks.size());
+
+            for (; _chunkIndex < end; _chunkIndex++) {
+                ChunkCoords coords = _chunks.get(_chunkIndex);
+                if (!coords.world.isChunkLoaded(coords.x, coords.z))
+                    coords.world.loadChunk(coords.x, coords.z, true);
+            }
+            return;
+        }
+
+        // teleport players
+        int end = Math.min(_playerIndex + _teleportsPerTick, _players.size());
+
+        for (; _playerIndex < end; _playerIndex++) {
+
+            IArenaPlayer player = _players.get(_playerIndex);
+
+            // skip players that left while waiting
+            if (!player.isOnline() || player.getArena() != _arena)
+                continue;
+
+            if (player.teleport(_destinations.get(_playerIndex), _mode))
+                _teleported++;
+        }
+
+        if (_playerIndex == _players.size()) {
+            _task.cancel();
+            _task = null;
+            _agent.success(_teleported);
+        }
+    }
+
+    private static class ChunkCoords {
+
+        final World world;
+        final int x;
+        final int z;
+
+        ChunkCoords(World world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public int hashCode() {
+            return world.hashCode() ^ (x * 31 + z);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ChunkCoords))
+                return false;
+
+            ChunkCoords other = (ChunkCoords) obj;
+            return other.x == x && other.z == z && other.world.equals(world);
+        }
+    }
+}
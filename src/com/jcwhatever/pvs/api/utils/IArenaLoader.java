@@ -0,0 +1,71 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import java.util.UUID;
+
+/**
+ * Loads an arena in two steps for an {@link ArenaLoadPipeline}.
+ *
+ * @param <T>  The type of the parsed arena data.
+ */
+public interface IArenaLoader<T> {
+
+    /**
+     * Read and parse the data of an arena, i.e. the arena data nodes,
+     * extension nodes and spawns.
+     *
+     * <p>Invoked from a worker thread. Must not use the Bukkit API or
+     * modify shared state.</p>
+     *
+     * @param arenaId  The ID of the arena.
+     *
+     * @return  The parsed arena data.
+     *
+     * @throws Exception if the arena data cannot be read or parsed.
+     */
+    T parse(UUID arenaId) throws Exception;
+
+    /**
+     * Create the arena from its parsed data and call the
+     * {@link com.jcwhatever.pvs.api.events.ArenaLoadedEvent}.
+     *
+     * <p>Invoked from the main thread, in the order the arenas were added
+     * to the pipeline.</p>
+     *
+     * @param arenaId  The ID of the arena.
+     * @param data     The parsed arena data.
+     */
+    void finish(UUID arenaId, T data);
+
+    /**
+     * Invoked from the main thread when an arena fails to parse or finish.
+     *
+     * @param arenaId  The ID of the arena.
+     * @param error    The error.
+     */
+    void fail(UUID arenaId, Throwable error);
+}
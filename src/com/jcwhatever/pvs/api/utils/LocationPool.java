@@ -0,0 +1,119 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.coords.LocationUtils;
+import org.bukkit.Location;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of reusable {@link Location} instances.
+ *
+ * <p>Used on paths that are run frequently, such as player respawns, to
+ * avoid creating short lived {@link Location} objects. Locations retrieved
+ * from the pool should be returned using {@link #release} once they are
+ * no longer referenced.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class LocationPool {
+
+    private final Deque<Location> _pool;
+    private final int _maxSize;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize  The max number of idle locations kept in the pool.
+     */
+    public LocationPool(int maxSize) {
+        PreCon.greaterThanZero(maxSize);
+
+        _maxSize = maxSize;
+        _pool = new ArrayDeque<>(maxSize);
+    }
+
+    /**
+     * Get the max number of idle locations kept in the pool.
+     */
+    public int getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * Get the number of idle locations in the pool.
+     */
+    public int size() {
+        return _pool.size();
+    }
+
+    /**
+     * Get a location from the pool.
+     *
+     * <p>The values of the location are undefined.</p>
+     */
+    public Location get() {
+        Location location = _pool.pollFirst();
+        if (location == null)
+            location = new Location(null, 0, 0, 0);
+
+        return location;
+    }
+
+    /**
+     * Get a location from the pool with values copied from
+     * another location.
+     *
+     * @param source  The location to copy values from.
+     */
+    public Location get(Location source) {
+        PreCon.notNull(source);
+
+        return LocationUtils.copy(source, get());
+    }
+
+    /**
+     * Return a location to the pool.
+     *
+     * <p>The location is discarded if the pool is full.</p>
+     *
+     * @param location  The location to return.
+     */
+    public void release(Location location) {
+        PreCon.notNull(location);
+
+        if (_pool.size() >= _maxSize)
+            return;
+
+        // prevent pooled locations from holding a world reference
+        location.setWorld(null);
+
+        _pool.addFirst(location);
+    }
+}
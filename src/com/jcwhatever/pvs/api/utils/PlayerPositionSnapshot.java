@@ -0,0 +1,358 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.ArenaTeam;
+import com.jcwhatever.pvs.api.arena.IArenaPlayer;
+import com.jcwhatever.pvs.api.spawns.Spawnpoint;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Collection;
+import javax.annotation.Nullable;
+
+/**
+ * An immutable snapshot of player positions used to score spawnpoints by
+ * distance from opposing players.
+ *
+ * <p>Positions are stored in a k-d tree per team so finding the nearest opposing
+ * player to a spawnpoint is O(log N) instead of a scan of every player.</p>
+ *
+ * <p>A snapshot is intended to be captured at most once per tick and shared by
+ * all respawns in the tick. Not thread safe.</p>
+ */
+public class PlayerPositionSnapshot {
+
+    /**
+     * The time in nanoseconds a snapshot is considered current. (1 tick)
+     */
+    public static final long EXPIRE_NANOS = 50000000L;
+
+    private static final ArenaTeam[] TEAMS = ArenaTeam.values();
+
+    private final long _created = System.nanoTime();
+    private final World _world;
+    private final IArenaPlayer[] _players;
+    private final double[] _x;
+    private final double[] _y;
+    private final double[] _z;
+
+    // start and end (exclusive) index of each teams tree, by team ordinal
+    private final int[] _teamStart = new int[TEAMS.length];
+    private final int[] _teamEnd = new int[TEAMS.length];
+
+    /**
+     * Capture the positions of living players.
+     *
+     * @param players  The players to capture.
+     * @param world    The world the players must be in to be captured.
+     *
+     * @return  The new snapshot.
+     */
+    public static PlayerPositionSnapshot capture(Collection<? extends IArenaPlayer> players, World world) {
+        PreCon.notNull(players);
+        PreCon.notNull(world);
+
+        return new PlayerPositionSnapshot(players, world);
+    }
+
+    private PlayerPositionSnapshot(Collection<? extends IArenaPlayer> players, World world) {
+
+        _world = world;
+
+        int[] teamCounts = new int[TEAMS.length];
+        IArenaPlayer[] captured = new IArenaPlayer[players.size()];
+        Location location = new Location(null, 0, 0, 0);
+        int total = 0;
+
+        for (IArenaPlayer player : players) {
+            if (player.isDead() || !player.isOnline())
+                continue;
+
+            player.getLocation(location);
+            if (!world.equals(location.getWorld()))
+                continue;
+
+            captured[total] = player;
+            total++;
+            teamCounts[player.getTeam().ordinal()]++;
+        }
+
+        _players = new IArenaPlayer[total];
+        _x = new double[total];
+        _y = new double[total];
+        _z = new double[total];
+
+        // group players by team
+        int offset = 0;
+        for (int i = 0; i < TEAMS.length; i++) {
+            _teamStart[i] = offset;
+            _teamEnd[i] = offset;
+            offset += teamCounts[i];
+        }
+
+        for (int i = 0; i < total; i++) {
+            IArenaPlayer player = captured[i];
+            int index = _teamEnd[player.getTeam().ordinal()]++;
+
+            player.getLocation(location);
+            _players[index] = player;
+            _x[index] = location.getX();
+            _y[index] = location.getY();
+            _z[index] = location.getZ();
+        }
+
+        for (int i = 0; i < TEAMS.length; i++)
+            build(_teamStart[i], _teamEnd[i] - 1, 0);
+    }
+
+    /**
+     * Get the world the snapshot was captured in.
+     */
+    public World getWorld() {
+        return _world;
+    }
+
+    /**
+     * Get the number of captured players.
+     */
+    public int size() {
+        return _players.length;
+    }
+
+    /**
+     * Determine if the snapshot is older than one tick.
+     */
+    public boolean isExpired() {
+        return System.nanoTime() - _created >= EXPIRE_NANOS;
+    }
+
+    /**
+     * Get the squared distance from a position to the nearest player that
+     * opposes the specified player.
+     *
+     * <p>Players oppose each other if they are on different teams. Players
+     * on {@link ArenaTeam#NONE} oppose all other players.</p>
+     *
+     * @param player  The player to get the distance to opponents of.
+     * @param x       The X coordinates.
+     * @param y       The Y coordinates.
+     * @param z       The Z coordinates.
+     *
+     * @return  The squared distance or {@link Double#MAX_VALUE} if there are no opponents.
+     */
+    public double getNearestOpponentDistanceSquared(IArenaPlayer player, double x, double y, double z) {
+        PreCon.notNull(player);
+
+        ArenaTeam team = player.getTeam();
+
+        double best = Double.MAX_VALUE;
+
+        for (int i = 0; i < TEAMS.length; i++) {
+
+            if (team != ArenaTeam.NONE && TEAMS[i] == team)
+                continue;
+
+            best = search(_teamStart[i], _teamEnd[i] - 1, 0, x, y, z, player, best);
+        }
+
+        return best;
+    }
+
+    /**
+     * Get the safety score of a spawnpoint for a player.
+     *
+     * <p>The score is the distance from the spawn to the nearest opposing player.
+     * A higher score is safer.</p>
+     *
+     * @param spawn   The spawnpoint.
+     * @param player  The player that would spawn.
+     *
+     * @return  The score or {@link Double#MAX_VALUE} if there are no opponents
+     * in the snapshot world.
+     */
+    public double getSafetyScore(Spawnpoint spawn, IArenaPlayer player) {
+        PreCon.notNull(spawn);
+        PreCon.notNull(player);
+
+        if (!_world.equals(spawn.getWorld()))
+            return Double.MAX_VALUE;
+
+        double dist = getNearestOpponentDistanceSquared(player, spawn.getX(), spawn.getY(), spawn.getZ());
+        return dist == Double.MAX_VALUE ? dist : Math.sqrt(dist);
+    }
+
+    /**
+     * Get the spawnpoint from a collection of candidates that is farthest from
+     * the players opponents.
+     *
+     * @param player      The player that would spawn.
+     * @param candidates  The spawn candidates.
+     *
+     * @return  The safest spawnpoint or null if there are no candidates.
+     */
+    @Nullable
+    public <T extends Spawnpoint> T getSafestSpawn(IArenaPlayer player, Collection<T> candidates) {
+        PreCon.notNull(player);
+        PreCon.notNull(candidates);
+
+        T safest = null;
+        double safestDist = -1;
+
+        for (T spawn : candidates) {
+
+            double dist = _world.equals(spawn.getWorld())
+                    ? getNearestOpponentDistanceSquared(player, spawn.getX(), spawn.getY(), spawn.getZ())
+                    : Double.MAX_VALUE;
+
+            if (dist > safestDist) {
+                safest = spawn;
+                safestDist = dist;
+            }
+        }
+
+        return safest;
+    }
+
+    /*
+     * Build an implicit k-d tree in the range. The median of each range is the node,
+     * the lower half the left subtree and upper half the right subtree.
+     */
+    private void build(int lo, int hi, int depth) {
+        if (lo >= hi)
+            return;
+
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi, mid, depth % 3);
+
+        build(lo, mid - 1, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    /*
+     * Search the tree in the range for a player nearer than the current best
+     * squared distance. Returns the new best squared distance.
+     */
+    private double search(int lo, int hi, int depth, double x, double y, double z,
+                          IArenaPlayer exclude, double best) {
+        if (lo > hi)
+            return best;
+
+        int mid = (lo + hi) >>> 1;
+
+        if (_players[mid] != exclude) {
+            double dx = _x[mid] - x;
+            double dy = _y[mid] - y;
+            double dz = _z[mid] - z;
+            double dist = dx * dx + dy * dy + dz * dz;
+
+            if (dist < best)
+                best = dist;
+        }
+
+        if (lo == hi)
+            return best;
+
+        int axis = depth % 3;
+        double diff = (axis == 0 ? x : axis == 1 ? y : z) - coord(mid, axis);
+
+        if (diff < 0) {
+            best = search(lo, mid - 1, depth + 1, x, y, z, exclude, best);
+            if (diff * diff < best)
+                best = search(mid + 1, hi, depth + 1, x, y, z, exclude, best);
+        }
+        else {
+            best = search(mid + 1, hi, depth + 1, x, y, z, exclude, best);
+            if (diff * diff < best)
+                best = search(lo, mid - 1, depth + 1, x, y, z, exclude, best);
+        }
+
+        return best;
+    }
+
+    /*
+     * Quick select: partition the range so the element at index k is the
+     * element that would be there if the range were sorted on the axis.
+     */
+    private void select(int lo, int hi, int k, int axis) {
+        while (hi > lo) {
+
+            double pivot = coord((lo + hi) >>> 1, axis);
+            int i = lo;
+            int j = hi;
+
+            while (i <= j) {
+                while (coord(i, axis) < pivot)
+                    i++;
+                while (coord(j, axis) > pivot)
+                    j--;
+
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j)
+                hi = j;
+            else if (k >= i)
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    private double coord(int index, int axis) {
+        switch (axis) {
+            case 0:
+                return _x[index];
+            case 1:
+                return _y[index];
+            default:
+                return _z[index];
+        }
+    }
+
+    private void swap(int i, int j) {
+        IArenaPlayer player = _players[i];
+        _players[i] = _players[j];
+        _players[j] = player;
+
+        double x = _x[i];
+        _x[i] = _x[j];
+        _x[j] = x;
+
+        double y = _y[i];
+        _y[i] = _y[j];
+        _y[j] = y;
+
+        double z = _z[i];
+        _z[i] = _z[j];
+        _z[j] = z;
+    }
+}
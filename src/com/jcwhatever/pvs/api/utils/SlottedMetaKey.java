@@ -0,0 +1,148 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A meta key that is assigned a fixed slot index when registered.
+ *
+ * <p>Values stored in a {@link SlottedMetaStore} using a slotted key are
+ * read and written by array index instead of by hash lookup.</p>
+ *
+ * <p>Keys should be registered up front, i.e. when a module or extension
+ * type is enabled, and kept in a static field.</p>
+ *
+ * @param <T>  The meta value type.
+ */
+public final class SlottedMetaKey<T> {
+
+    private static final Map<String, SlottedMetaKey<?>> _keys = new HashMap<>(25);
+    private static int _totalSlots;
+
+    /**
+     * Register a slotted meta key.
+     *
+     * <p>Registering a name that is already registered returns the existing key
+     * so that reloaded modules keep the same slot.</p>
+     *
+     * @param name        The unique name of the key.
+     * @param valueClass  The meta value class.
+     *
+     * @throws IllegalStateException if the name is registered with a different value class.
+     */
+    public static <T> SlottedMetaKey<T> register(String name, Class<T> valueClass) {
+        PreCon.notNullOrEmpty(name);
+        PreCon.notNull(valueClass);
+
+        synchronized (_keys) {
+
+            SlottedMetaKey<?> current = _keys.get(name);
+            if (current != null) {
+
+                if (current.getValueClass() != valueClass) {
+                    throw new IllegalStateException("The slotted meta key named " + name +
+                            " is already registered with a different value type.");
+                }
+
+                @SuppressWarnings("unchecked")
+                SlottedMetaKey<T> key = (SlottedMetaKey<T>) current;
+
+                return key;
+            }
+
+            SlottedMetaKey<T> key = new SlottedMetaKey<>(name, valueClass, _totalSlots);
+            _totalSlots++;
+
+            _keys.put(name, key);
+
+            return key;
+        }
+    }
+
+    /**
+     * Get the total number of registered slots.
+     */
+    public static int totalSlots() {
+        synchronized (_keys) {
+            return _totalSlots;
+        }
+    }
+
+    private final String _name;
+    private final Class<T> _valueClass;
+    private final int _slot;
+
+    private SlottedMetaKey(String name, Class<T> valueClass, int slot) {
+        _name = name;
+        _valueClass = valueClass;
+        _slot = slot;
+    }
+
+    /**
+     * Get the name of the key.
+     */
+    public String getName() {
+        return _name;
+    }
+
+    /**
+     * Get the meta value class.
+     */
+    public Class<T> getValueClass() {
+        return _valueClass;
+    }
+
+    /**
+     * Get the index of the slot assigned to the key.
+     */
+    public int getSlot() {
+        return _slot;
+    }
+
+    @Override
+    public int hashCode() {
+        return _slot;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SlottedMetaKey))
+            return false;
+
+        SlottedMetaKey<?> other = (SlottedMetaKey<?>) obj;
+
+        return other._slot == _slot;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '{' + _name + ':' + _slot + '}';
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.MetaStore;
+import com.jcwhatever.nucleus.utils.PreCon;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Meta data store whose values are indexed by {@link SlottedMetaKey} slot.
+ *
+ * <p>Reading and writing a slotted value is a direct array access. Values
+ * with keys that are not known up front are stored in the fallback
+ * {@link MetaStore}.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class SlottedMetaStore {
+
+    private final MetaStore _meta;
+    private Object[] _slots;
+
+    /**
+     * Constructor.
+     *
+     * @param meta  The fallback meta store used for dynamic keys.
+     */
+    public SlottedMetaStore(MetaStore meta) {
+        PreCon.notNull(meta);
+
+        _meta = meta;
+        _slots = new Object[SlottedMetaKey.totalSlots()];
+    }
+
+    /**
+     * Get the fallback meta store used for dynamic keys.
+     */
+    public MetaStore getMeta() {
+        return _meta;
+    }
+
+    /**
+     * Get a slotted meta value.
+     *
+     * @param key  The slotted key.
+     *
+     * @param <T>  The meta value type.
+     *
+     * @return  The value or null if not set.
+     */
+    @Nullable
+    public <T> T get(SlottedMetaKey<T> key) {
+        PreCon.notNull(key);
+
+        int slot = key.getSlot();
+        if (slot >= _slots.length)
+            return null;
+
+        @SuppressWarnings("unchecked")
+        T value = (T) _slots[slot];
+
+        return value;
+    }
+
+    /**
+     * Determine if a slotted meta value is set.
+     *
+     * @param key  The slotted key.
+     */
+    public boolean has(SlottedMetaKey<?> key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Set a slotted meta value.
+     *
+     * @param key    The slotted key.
+     * @param value  The value. Null to remove.
+     *
+     * @param <T>  The meta value type.
+     *
+     * @return  The previous value, if any.
+     *
+     * @throws IllegalArgumentException if the value is not an instance of the keys value class.
+     */
+    @Nullable
+    public <T> T set(SlottedMetaKey<T> key, @Nullable T value) {
+        PreCon.notNull(key);
+        PreCon.isValid(value == null || key.getValueClass().isInstance(value),
+                "Value is not an instance of the slotted meta key value class.");
+
+        int slot = key.getSlot();
+        if (slot >= _slots.length) {
+
+            if (value == null)
+                return null;
+
+            // key registered after the store was created
+            _slots = Arrays.copyOf(_slots, Math.max(slot + 1, SlottedMetaKey.totalSlots()));
+        }
+
+        @SuppressWarnings("unchecked")
+        T previous = (T) _slots[slot];
+
+        _slots[slot] = value;
+
+        return previous;
+    }
+
+    /**
+     * Remove all slotted values.
+     *
+     * <p>Does not clear the fallback meta store.</p>
+     */
+    public void clear() {
+        Arrays.fill(_slots, null);
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.nucleus.utils.Rand;
+import com.jcwhatever.pvs.api.arena.ArenaTeam;
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.arena.IArenaPlayer;
+import com.jcwhatever.pvs.api.events.spawns.ClearReservedSpawnsEvent;
+import com.jcwhatever.pvs.api.events.spawns.ReserveSpawnEvent;
+import com.jcwhatever.pvs.api.events.spawns.UnreserveSpawnEvent;
+import com.jcwhatever.pvs.api.spawns.SpawnType;
+import com.jcwhatever.pvs.api.spawns.Spawnpoint;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Allocates reserved spawnpoints for players.
+ *
+ * <p>Unreserved spawns are kept in free-lists per {@link SpawnType} and
+ * {@link ArenaTeam}. Reserving a random free spawn, reserving a specific
+ * spawn and unreserving a players spawn are all constant time.</p>
+ *
+ * <p>If the allocator is constructed with {@link SpawnBuckets}, reserved spawns
+ * are excluded from the buckets and returned to them when unreserved, so the
+ * bucket lists only contain free spawns.</p>
+ *
+ * <p>{@link ReserveSpawnEvent}, {@link UnreserveSpawnEvent} and
+ * {@link ClearReservedSpawnsEvent} are called on the arenas event manager
+ * and can be cancelled.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class SpawnAllocator {
+
+    private final IArena _arena;
+    private final SpawnBuckets _buckets;
+    private final Map<Spawnpoint, Slot> _slots = new IdentityHashMap<>(35);
+    private final Map<SpawnType, Map<ArenaTeam, FreeList>> _freeLists = new HashMap<>(10);
+    private final Map<IArenaPlayer, Slot> _reserved = new HashMap<>(35);
+    private final Map<SpawnType, int[]> _reservedCounts = new HashMap<>(10);
+
+    /**
+     * Constructor.
+     *
+     * @param arena  The arena the allocator is for.
+     */
+    public SpawnAllocator(IArena arena) {
+        this(arena, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param arena    The arena the allocator is for.
+     * @param buckets  The spawn buckets to exclude reserved spawns from.
+     */
+    public SpawnAllocator(IArena arena, @Nullable SpawnBuckets buckets) {
+        PreCon.notNull(arena);
+
+        _arena = arena;
+        _buckets = buckets;
+    }
+
+    /**
+     * Get the arena the allocator is for.
+     */
+    public IArena getArena() {
+        return _arena;
+    }
+
+    /**
+     * Add a spawnpoint to the allocator as a free spawn.
+     *
+     * @param spawn  The spawnpoint to add.
+     *
+     * @return  True if added, false if already added.
+     */
+    public boolean add(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        if (_slots.containsKey(spawn))
+            return false;
+
+        Slot slot = new Slot(spawn, getFreeList(spawn.getSpawnType(), spawn.getTeam(), true));
+        _slots.put(spawn, slot);
+
+        slot.list.add(slot);
+        return true;
+    }
+
+    /**
+     * Add a collection of spawnpoints to the allocator as free spawns.
+     *
+     * @param spawns  The spawnpoints to add.
+     */
+    public void addAll(Collection<? extends Spawnpoint> spawns) {
+        PreCon.notNull(spawns);
+
+        for (Spawnpoint spawn : spawns)
+            add(spawn);
+    }
+
+    /**
+     * Remove a spawnpoint from the allocator.
+     *
+     * <p>If the spawn is reserved, the reservation is dropped without calling
+     * an {@link UnreserveSpawnEvent}.</p>
+     *
+     * @param spawn  The spawnpoint to remove.
+     *
+     * @return  True if found and removed.
+     */
+    public boolean remove(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        Slot slot = _slots.remove(spawn);
+        if (slot == null)
+            return false;
+
+        if (slot.reservedFor != null) {
+            _reserved.remove(slot.reservedFor);
+            reservedCount(spawn.getSpawnType())[0]--;
+
+            if (_buckets != null)
+                _buckets.unreserve(spawn);
+        }
+        else {
+            slot.list.remove(slot);
+        }
+
+        return true;
+    }
+
+    /**
+     * Remove all spawnpoints and reservations from the allocator.
+     */
+    public void clear() {
+        if (_buckets != null) {
+            for (Slot slot : _reserved.values())
+                _buckets.unreserve(slot.spawn);
+        }
+
+        _slots.clear();
+        _freeLists.clear();
+        _reserved.clear();
+        _reservedCounts.clear();
+    }
+
+    /**
+     * Determine if a spawnpoint is reserved.
+     *
+     * @param spawn  The spawnpoint to check.
+     */
+    public boolean isReserved(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        Slot slot = _slots.get(spawn);
+        return slot != null && slot.reservedFor != null;
+    }
+
+    /**
+     * Get the spawnpoint reserved for a player.
+     *
+     * @param player  The player.
+     *
+     * @return  The spawnpoint or null if the player has no reserved spawn.
+     */
+    @Nullable
+    public Spawnpoint getReserved(IArenaPlayer player) {
+        PreCon.notNull(player);
+
+        Slot slot = _reserved.get(player);
+        return slot != null ? slot.spawn : null;
+    }
+
+    /**
+     * Reserve a random free spawnpoint for a player.
+     *
+     * <p>If the player already has a reserved spawn, it is unreserved first.</p>
+     *
+     * @param player  The player to reserve the spawn for.
+     * @param type    The spawn type.
+     * @param team    The spawn team.
+     *
+     * @return  The reserved spawnpoint or null if there are no free spawns or the
+     * reservation was cancelled.
+     */
+    @Nullable
+    public Spawnpoint reserveRandom(IArenaPlayer player, SpawnType type, ArenaTeam team) {
+        PreCon.notNull(player);
+        PreCon.notNull(type);
+        PreCon.notNull(team);
+
+        FreeList list = getFreeList(type, team, false);
+        if (list == null || list.size == 0)
+            return null;
+
+        Slot slot = list.slots[Rand.getInt(list.size)];
+
+        return reserve(player, slot) ? slot.spawn : null;
+    }
+
+    /**
+     * Reserve a specific spawnpoint for a player.
+     *
+     * <p>If the player already has a reserved spawn, it is unreserved first.</p>
+     *
+     * @param player  The player to reserve the spawn for.
+     * @param spawn   The spawnpoint to reserve.
+     *
+     * @return  True if reserved, false if the spawn is not free or the reservation
+     * was cancelled.
+     */
+    public boolean reserve(IArenaPlayer player, Spawnpoint spawn) {
+        PreCon.notNull(player);
+        PreCon.notNull(spawn);
+
+        Slot slot = _slots.get(spawn);
+        if (slot == null)
+            return false;
+
+        if (slot.reservedFor == player)
+            return true;
+
+        return slot.reservedFor == null && reserve(player, slot);
+    }
+
+    /**
+     * Unreserve the spawnpoint reserved for a player and return it
+     * to the free spawns.
+     *
+     * @param player  The player the spawn is reserved for.
+     *
+     * @return  The unreserved spawnpoint or null if the player did not have a
+     * reserved spawn or the event was cancelled.
+     */
+    @Nullable
+    public Spawnpoint unreserve(IArenaPlayer player) {
+        PreCon.notNull(player);
+
+        Slot slot = _reserved.get(player);
+        if (slot == null)
+            return null;
+
+        UnreserveSpawnEvent event = new UnreserveSpawnEvent(_arena, player, slot.spawn);
+        _arena.getEventManager().call(this, event);
+
+        if (event.isCancelled())
+            return null;
+
+        release(slot);
+        _reserved.remove(player);
+
+        return slot.spawn;
+    }
+
+    /**
+     * Unreserve all reserved spawns and return them to the free spawns.
+     *
+     * <p>Calls a single {@link ClearReservedSpawnsEvent}.</p>
+     *
+     * @return  True if cleared, false if the event was cancelled.
+     */
+    public boolean clearReserved() {
+
+        if (_reserved.isEmpty())
+            return true;
+
+        ClearReservedSpawnsEvent event = new ClearReservedSpawnsEvent(_arena);
+        _arena.getEventManager().call(this, event);
+
+        if (event.isCancelled())
+            return false;
+
+        Iterator<Slot> iterator = _reserved.values().iterator();
+        while (iterator.hasNext()) {
+            release(iterator.next());
+            iterator.remove();
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the total number of reserved spawns.
+     */
+    public int totalReserved() {
+        return _reserved.size();
+    }
+
+    /**
+     * Get the number of reserved spawns of the specified type.
+     *
+     * @param type  The spawn type.
+     */
+    public int totalReserved(SpawnType type) {
+        PreCon.notNull(type);
+
+        int[] count = _reservedCounts.get(type);
+        return count != null ? count[0] : 0;
+    }
+
+    /**
+     * Get the number of free spawns of the specified type and team.
+     *
+     * @param type  The spawn type.
+     * @param team  The spawn team.
+     */
+    public int totalFree(SpawnType type, ArenaTeam team) {
+        PreCon.notNull(type);
+        PreCon.notNull(team);
+
+        FreeList list = getFreeList(type, team, false);
+        return list != null ? list.size : 0;
+    }
+
+    private boolean reserve(IArenaPlayer player, Slot slot) {
+
+        Slot current = _reserved.get(player);
+        if (current != null) {
+            UnreserveSpawnEvent event = new UnreserveSpawnEvent(_arena, player, current.spawn);
+            _arena.getEventManager().call(this, event);
+
+            if (event.isCancelled())
+                return false;
+        }
+
+        ReserveSpawnEvent event = new ReserveSpawnEvent(_arena, player, slot.spawn);
+        _arena.getEventManager().call(this, event);
+
+        // keep the current reservation if the new one is cancelled
+        if (event.isCancelled())
+            return false;
+
+        // an event handler changed the reservations
+        if (slot.reservedFor != null || _reserved.get(player) != current)
+            return false;
+
+        if (current != null) {
+            release(current);
+            _reserved.remove(player);
+        }
+
+        slot.list.remove(slot);
+        slot.reservedFor = player;
+        _reserved.put(player, slot);
+        reservedCount(slot.spawn.getSpawnType())[0]++;
+
+        if (_buckets != null)
+            _buckets.reserve(slot.spawn);
+
+        return true;
+    }
+
+    private void release(Slot slot) {
+        slot.reservedFor = null;
+        slot.list.add(slot);
+        reservedCount(slot.spawn.getSpawnType())[0]--;
+
+        if (_buckets != null)
+            _buckets.unreserve(slot.spawn);
+    }
+
+    private int[] reservedCount(SpawnType type) {
+        int[] count = _reservedCounts.get(type);
+        if (count == null) {
+            count = new int[1];
+            _reservedCounts.put(type, count);
+        }
+        return count;
+    }
+
+    @Nullable
+    private FreeList getFreeList(SpawnType type, ArenaTeam team, boolean create) {
+
+        Map<ArenaTeam, FreeList> teams = _freeLists.get(type);
+        if (teams == null) {
+            if (!create)
+                return null;
+
+            teams = new EnumMap<>(ArenaTeam.class);
+            _freeLists.put(type, teams);
+        }
+
+        FreeList list = teams.get(team);
+        if (list == null && create) {
+            list = new FreeList();
+            teams.put(team, list);
+        }
+
+        return list;
+    }
+
+    /*
+     * Array of free slots. Each slot tracks its own index
+     * so it can be removed by swapping with the last slot.
+     */
+    private static class FreeList {
+
+        Slot[] slots = new Slot[10];
+        int size;
+
+        void add(Slot slot) {
+            if (size == slots.length)
+                slots = Arrays.copyOf(slots, size * 2);
+
+            slot.index = size;
+            slots[size] = slot;
+            size++;
+        }
+
+        void remove(Slot slot) {
+            int index = slot.index;
+            if (index < 0)
+                return;
+
+            size--;
+
+            Slot last = slots[size];
+            slots[index] = last;
+            last.index = index;
+
+            slots[size] = null;
+            slot.index = -1;
+        }
+    }
+
+    private static class Slot {
+
+        final Spawnpoint spawn;
+        final FreeList list;
+        int index = -1;
+        IArenaPlayer reservedFor;
+
+        Slot(Spawnpoint spawn, FreeList list) {
+            this.spawn = spawn;
+            this.list = list;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import com.jcwhatever.pvs.api.arena.ArenaTeam;
+import com.jcwhatever.pvs.api.arena.options.ArenaContext;
+import com.jcwhatever.pvs.api.spawns.ISpawnTypeManager;
+import com.jcwhatever.pvs.api.spawns.SpawnType;
+import com.jcwhatever.pvs.api.spawns.Spawnpoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores {@link Spawnpoint}'s pre-bucketed by {@link SpawnType}, {@link ArenaTeam}
+ * and {@link ArenaContext}.
+ *
+ * <p>Getter methods return unmodifiable lists without copying. Reserved spawns
+ * are excluded from the lists until they are unreserved.</p>
+ *
+ * <p>Adding, removing, reserving or unreserving a spawnpoint only changes the
+ * buckets the spawnpoint is in. A changed bucket copies its list on the next
+ * lookup. Lists that were returned before a change are not changed by it.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ *
+ * @see SpawnAllocator
+ */
+public class SpawnBuckets {
+
+    private final List<Spawnpoint> _spawns = new ArrayList<>(25);
+    private final Set<Spawnpoint> _reserved =
+            Collections.newSetFromMap(new IdentityHashMap<Spawnpoint, Boolean>(35));
+
+    private final Bucket _all = new Bucket();
+    private final Map<SpawnType, Bucket> _byType = new HashMap<>(10);
+    private final Map<ArenaTeam, Bucket> _byTeam = new EnumMap<>(ArenaTeam.class);
+    private final Map<ArenaContext, Bucket> _byContext = new EnumMap<>(ArenaContext.class);
+    private final Map<SpawnType, Map<ArenaTeam, Bucket>> _byTypeTeam = new HashMap<>(10);
+    private final Map<ArenaContext, Map<ArenaTeam, Bucket>> _byContextTeam = new EnumMap<>(ArenaContext.class);
+
+    /**
+     * Get the context a spawn type is used for.
+     *
+     * @param type  The spawn type.
+     *
+     * @return  The context or {@link ArenaContext#NONE} if the type is
+     * not a lobby, game or spectator spawn type.
+     */
+    public static ArenaContext getContext(SpawnType type) {
+        PreCon.notNull(type);
+
+        ISpawnTypeManager manager = PVStarAPI.getSpawnTypeManager();
+
+        if (type.equals(manager.getLobbySpawnType()))
+            return ArenaContext.LOBBY;
+
+        if (type.equals(manager.getGameSpawnType()))
+            return ArenaContext.GAME;
+
+        if (type.equals(manager.getSpectatorSpawnType()))
+            return ArenaContext.SPECTATOR;
+
+        return ArenaContext.NONE;
+    }
+
+    /**
+     * Get the total number of spawnpoints, including reserved spawnpoints.
+     */
+    public int size() {
+        return _spawns.size();
+    }
+
+    /**
+     * Add a spawnpoint.
+     *
+     * @param spawn  The spawnpoint to add.
+     */
+    public void add(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        _spawns.add(spawn);
+        include(spawn);
+    }
+
+    /**
+     * Add a collection of spawnpoints.
+     *
+     * @param spawns  The spawnpoints to add.
+     */
+    public void addAll(Collection<? extends Spawnpoint> spawns) {
+        PreCon.notNull(spawns);
+
+        for (Spawnpoint spawn : spawns)
+            add(spawn);
+    }
+
+    /**
+     * Remove a spawnpoint.
+     *
+     * @param spawn  The spawnpoint to remove.
+     *
+     * @return  True if found and removed.
+     */
+    public boolean remove(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        if (!removeSame(_spawns, spawn))
+            return false;
+
+        if (!_reserved.remove(spawn))
+            exclude(spawn);
+
+        return true;
+    }
+
+    /**
+     * Remove a collection of spawnpoints.
+     *
+     * @param spawns  The spawnpoints to remove.
+     */
+    public void removeAll(Collection<? extends Spawnpoint> spawns) {
+        PreCon.notNull(spawns);
+
+        for (Spawnpoint spawn : spawns)
+            remove(spawn);
+    }
+
+    /**
+     * Remove all spawnpoints.
+     */
+    public void clear() {
+        _spawns.clear();
+        _reserved.clear();
+
+        _all.clear();
+        clear(_byType);
+        clear(_byTeam);
+        clear(_byContext);
+
+        for (Map<ArenaTeam, Bucket> teams : _byTypeTeam.values())
+            clear(teams);
+
+        for (Map<ArenaTeam, Bucket> teams : _byContextTeam.values())
+            clear(teams);
+    }
+
+    /**
+     * Determine if a spawnpoint is reserved.
+     *
+     * @param spawn  The spawnpoint to check.
+     */
+    public boolean isReserved(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        return _reserved.contains(spawn);
+    }
+
+    /**
+     * Exclude a spawnpoint from the getter methods until it is unreserved.
+     *
+     * @param spawn  The spawnpoint to reserve.
+     *
+     * @return  True if reserved, false if the spawnpoint is not added
+     * or is already reserved.
+     */
+    public boolean reserve(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        if (_reserved.contains(spawn) || indexOfSame(_spawns, spawn) == -1)
+            return false;
+
+        _reserved.add(spawn);
+        exclude(spawn);
+        return true;
+    }
+
+    /**
+     * Return a reserved spawnpoint to the getter methods.
+     *
+     * @param spawn  The spawnpoint to unreserve.
+     *
+     * @return  True if the spawnpoint was reserved.
+     */
+    public boolean unreserve(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        if (!_reserved.remove(spawn))
+            return false;
+
+        include(spawn);
+        return true;
+    }
+
+    /**
+     * Return all reserved spawnpoints to the getter methods.
+     */
+    public void unreserveAll() {
+
+        for (Spawnpoint spawn : _reserved)
+            include(spawn);
+
+        _reserved.clear();
+    }
+
+    /**
+     * Get all unreserved spawnpoints.
+     */
+    public List<Spawnpoint> getAll() {
+        return _all.getList();
+    }
+
+    /**
+     * Get all unreserved spawnpoints of the specified type.
+     *
+     * @param type  The spawn type.
+     */
+    public List<Spawnpoint> getAll(SpawnType type) {
+        PreCon.notNull(type);
+
+        return get(_byType, type);
+    }
+
+    /**
+     * Get all unreserved spawnpoints of the specified team.
+     *
+     * @param team  The team.
+     */
+    public List<Spawnpoint> getAll(ArenaTeam team) {
+        PreCon.notNull(team);
+
+        return get(_byTeam, team);
+    }
+
+    /**
+     * Get all unreserved spawnpoints for the specified context.
+     *
+     * @param context  The arena context.
+     */
+    public List<Spawnpoint> getAll(ArenaContext context) {
+        PreCon.notNull(context);
+
+        return get(_byContext, context);
+    }
+
+    /**
+     * Get all unreserved spawnpoints of the specified type and team.
+     *
+     * @param type  The spawn type.
+     * @param team  The team.
+     */
+    public List<Spawnpoint> getAll(SpawnType type, ArenaTeam team) {
+        PreCon.notNull(type);
+        PreCon.notNull(team);
+
+        Map<ArenaTeam, Bucket> teams = _byTypeTeam.get(type);
+        if (teams == null)
+            return Collections.emptyList();
+
+        return get(teams, team);
+    }
+
+    /**
+     * Get all unreserved spawnpoints of the specified team and context.
+     *
+     * @param team     The team.
+     * @param context  The arena context.
+     */
+    public List<Spawnpoint> getAll(ArenaTeam team, ArenaContext context) {
+        PreCon.notNull(team);
+        PreCon.notNull(context);
+
+        Map<ArenaTeam, Bucket> teams = _byContextTeam.get(context);
+        if (teams == null)
+            return Collections.emptyList();
+
+        return get(teams, team);
+    }
+
+    /*
+     * Add a spawnpoint to each of its buckets.
+     */
+    private void include(Spawnpoint spawn) {
+
+        SpawnType type = spawn.getSpawnType();
+        ArenaTeam team = spawn.getTeam();
+        ArenaContext context = getContext(type);
+
+        _all.add(spawn);
+        bucket(_byType, type).add(spawn);
+        bucket(_byTeam, team).add(spawn);
+        bucket(_byContext, context).add(spawn);
+        bucket(teams(_byTypeTeam, type), team).add(spawn);
+        bucket(teams(_byContextTeam, context), team).add(spawn);
+    }
+
+    /*
+     * Remove a spawnpoint from each of its buckets.
+     */
+    private void exclude(Spawnpoint spawn) {
+
+        SpawnType type = spawn.getSpawnType();
+        ArenaTeam team = spawn.getTeam();
+        ArenaContext context = getContext(type);
+
+        _all.remove(spawn);
+        bucket(_byType, type).remove(spawn);
+        bucket(_byTeam, team).remove(spawn);
+        bucket(_byContext, context).remove(spawn);
+        bucket(teams(_byTypeTeam, type), team).remove(spawn);
+        bucket(teams(_byContextTeam, context), team).remove(spawn);
+    }
+
+    private static <K> List<Spawnpoint> get(Map<K, Bucket> map, K key) {
+        Bucket bucket = map.get(key);
+        return bucket != null ? bucket.getList() : Collections.<Spawnpoint>emptyList();
+    }
+
+    private static <K> Bucket bucket(Map<K, Bucket> map, K key) {
+        Bucket bucket = map.get(key);
+        if (bucket == null) {
+            bucket = new Bucket();
+            map.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    private static <K> Map<ArenaTeam, Bucket> teams(Map<K, Map<ArenaTeam, Bucket>> map, K key) {
+        Map<ArenaTeam, Bucket> teams = map.get(key);
+        if (teams == null) {
+            teams = new EnumMap<>(ArenaTeam.class);
+            map.put(key, teams);
+        }
+        return teams;
+    }
+
+    /*
+     * Spawnpoints at the same location are equal, compare instances.
+     */
+    private static int indexOfSame(List<Spawnpoint> spawns, Spawnpoint spawn) {
+        for (int i = 0; i < spawns.size(); i++) {
+            if (spawns.get(i) == spawn)
+                return i;
+        }
+        return -1;
+    }
+
+    private static boolean removeSame(List<Spawnpoint> spawns, Spawnpoint spawn) {
+        int index = indexOfSame(spawns, spawn);
+        if (index == -1)
+            return false;
+
+        spawns.remove(index);
+        return true;
+    }
+
+    private static <K> void clear(Map<K, Bucket> map) {
+        for (Bucket bucket : map.values())
+            bucket.clear();
+    }
+
+    /*
+     * The spawnpoints of a bucket and the unmodifiable copy returned
+     * by lookups. The copy is replaced on the first lookup after a change.
+     */
+    private static class Bucket {
+
+        final List<Spawnpoint> spawns = new ArrayList<>(10);
+        List<Spawnpoint> list = Collections.emptyList();
+        boolean isChanged;
+
+        void add(Spawnpoint spawn) {
+            spawns.add(spawn);
+            isChanged = true;
+        }
+
+        void remove(Spawnpoint spawn) {
+            if (removeSame(spawns, spawn))
+                isChanged = true;
+        }
+
+        void clear() {
+            spawns.clear();
+            list = Collections.emptyList();
+            isChanged = false;
+        }
+
+        List<Spawnpoint> getList() {
+            if (isChanged) {
+                list = spawns.isEmpty()
+                        ? Collections.<Spawnpoint>emptyList()
+                        : Collections.unmodifiableList(new ArrayList<>(spawns));
+                isChanged = false;
+            }
+            return list;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import com.jcwhatever.nucleus.utils.Rand;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.RandomAccess;
 import javax.annotation.Nullable;
 
 /**
@@ -117,17 +118,24 @@ public class SpawnFilter {
     public static <T extends Spawnpoint> T getRandomSpawn(Collection<T> spawnpoints) {
         PreCon.notNull(spawnpoints);
 
-        if (spawnpoints.size() == 0)
+        int size = spawnpoints.size();
+        if (size == 0)
             return null;
 
-        List<T> list;
+        int index = Rand.getInt(size);
 
-        list = spawnpoints instanceof List<?>
-                ? (List<T>) spawnpoints
-                : new ArrayList<T>(spawnpoints.size());
+        if (spawnpoints instanceof List<?> && spawnpoints instanceof RandomAccess)
+            return ((List<T>) spawnpoints).get(index);
 
-        // choose a random spawn
-        return Rand.get(list);
+        // iterate to the randomly selected index
+        for (T spawn : spawnpoints) {
+            if (index == 0)
+                return spawn;
+
+            index--;
+        }
+
+        return null;
     }
 
     /**
@@ -142,16 +150,7 @@ public class SpawnFilter {
         PreCon.notNull(team);
         PreCon.notNull(spawnpoints);
 
-        if (spawnpoints.size() == 0)
-            return null;
-
-        List<T> filtered = filter(team, spawnpoints);
-
-        if (filtered.size() == 0)
-            return null;
-
-        // choose a random spawn
-        return Rand.get(filtered);
+        return sample(null, team, spawnpoints);
     }
 
     /**
@@ -166,16 +165,7 @@ public class SpawnFilter {
         PreCon.notNull(type);
         PreCon.notNull(spawnpoints);
 
-        if (spawnpoints.size() == 0)
-            return null;
-
-        List<T> filtered = filter(type, spawnpoints);
-
-        if (filtered.size() == 0)
-            return null;
-
-        // choose a random spawn
-        return Rand.get(filtered);
+        return sample(type, null, spawnpoints);
     }
 
     /**
@@ -193,15 +183,130 @@ public class SpawnFilter {
         PreCon.notNull(team);
         PreCon.notNull(spawnpoints);
 
-        if (spawnpoints.size() == 0)
+        return sample(type, team, spawnpoints);
+    }
+
+    /**
+     * Get a random {@link Spawnpoint} from a collection of spawns where the chance
+     * of a spawn being selected is proportional to its {@link Spawnpoint#getWeight}.
+     *
+     * @param spawnpoints  The spawn candidates.
+     */
+    @Nullable
+    public static <T extends Spawnpoint> T getWeightedRandomSpawn(Collection<T> spawnpoints) {
+        PreCon.notNull(spawnpoints);
+
+        return sampleWeighted(null, null, spawnpoints);
+    }
+
+    /**
+     * Get a random {@link Spawnpoint} of the specified team from a collection of spawns
+     * where the chance of a spawn being selected is proportional to its
+     * {@link Spawnpoint#getWeight}.
+     *
+     * @param team         The team.
+     * @param spawnpoints  The spawn candidates.
+     */
+    @Nullable
+    public static <T extends Spawnpoint> T getWeightedRandomSpawn(ArenaTeam team, Collection<T> spawnpoints) {
+        PreCon.notNull(team);
+        PreCon.notNull(spawnpoints);
+
+        return sampleWeighted(null, team, spawnpoints);
+    }
+
+    /**
+     * Get a random {@link Spawnpoint} of the specified type from a collection of spawns
+     * where the chance of a spawn being selected is proportional to its
+     * {@link Spawnpoint#getWeight}.
+     *
+     * @param type         The spawn type.
+     * @param spawnpoints  The spawn candidates.
+     */
+    @Nullable
+    public static <T extends Spawnpoint> T getWeightedRandomSpawn(SpawnType type, Collection<T> spawnpoints) {
+        PreCon.notNull(type);
+        PreCon.notNull(spawnpoints);
+
+        return sampleWeighted(type, null, spawnpoints);
+    }
+
+    /**
+     * Get a random {@link Spawnpoint} of the specified type and team from a collection
+     * of spawns where the chance of a spawn being selected is proportional to its
+     * {@link Spawnpoint#getWeight}.
+     *
+     * @param type         The spawn type.
+     * @param team         The team.
+     * @param spawnpoints  The spawn candidates.
+     */
+    @Nullable
+    public static <T extends Spawnpoint> T getWeightedRandomSpawn(SpawnType type, ArenaTeam team,
+                                                                  Collection<T> spawnpoints) {
+        PreCon.notNull(type);
+        PreCon.notNull(team);
+        PreCon.notNull(spawnpoints);
+
+        return sampleWeighted(type, team, spawnpoints);
+    }
+
+    /*
+     * Select a random matching spawn in a single pass using reservoir sampling.
+     */
+    @Nullable
+    private static <T extends Spawnpoint> T sample(@Nullable SpawnType type, @Nullable ArenaTeam team,
+                                                   Collection<T> spawnpoints) {
+        if (spawnpoints.isEmpty())
             return null;
 
-        List<T> filtered = filter(type, team, spawnpoints);
+        T selected = null;
+        int matches = 0;
+
+        for (T spawn : spawnpoints) {
+
+            if (!matches(type, team, spawn))
+                continue;
+
+            matches++;
 
-        if (filtered.size() == 0)
+            // replace selection with probability 1/matches
+            if (Rand.getInt(matches) == 0)
+                selected = spawn;
+        }
+
+        return selected;
+    }
+
+    /*
+     * Select a random matching spawn in a single pass using weighted reservoir sampling.
+     */
+    @Nullable
+    private static <T extends Spawnpoint> T sampleWeighted(@Nullable SpawnType type, @Nullable ArenaTeam team,
+                                                           Collection<T> spawnpoints) {
+        if (spawnpoints.isEmpty())
             return null;
 
-        // choose a random spawn
-        return Rand.get(filtered);
+        T selected = null;
+        double totalWeight = 0.0D;
+
+        for (T spawn : spawnpoints) {
+
+            double weight = spawn.getWeight();
+            if (weight <= 0.0D || !matches(type, team, spawn))
+                continue;
+
+            totalWeight += weight;
+
+            // replace selection with probability weight/totalWeight
+            if (Rand.getDouble() * totalWeight < weight)
+                selected = spawn;
+        }
+
+        return selected;
+    }
+
+    private static boolean matches(@Nullable SpawnType type, @Nullable ArenaTeam team, Spawnpoint spawn) {
+        return (type == null || type.equals(spawn.getSpawnType())) &&
+                (team == null || team == spawn.getTeam());
     }
 }
@@ -0,0 +1,277 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.events.manager.EventMethod;
+import com.jcwhatever.nucleus.events.manager.IEventListener;
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.PVStarAPI;
+import com.jcwhatever.pvs.api.arena.IArena;
+import com.jcwhatever.pvs.api.arena.settings.IArenaSettings;
+import com.jcwhatever.pvs.api.events.ArenaEndedEvent;
+import com.jcwhatever.pvs.api.spawns.SpawnType;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the live entities spawned for an arena and enforces the
+ * entity ceilings configured in the arenas {@link IArenaSettings}.
+ *
+ * <p>Spawns are throttled by reducing the number of entities allowed to
+ * spawn, or denied when the arena is at or over a ceiling.</p>
+ *
+ * <p>Only entities spawned by {@link com.jcwhatever.pvs.api.spawns.Spawnpoint#spawn},
+ * including spawns run by the arenas {@link ArenaSpawnQueue}, are limited and
+ * tracked. Entities spawned by invoking a {@link SpawnType} directly are not
+ * counted unless they are passed to {@link #track}.</p>
+ *
+ * <p>Tracked entities are cleared when the arena game ends.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class SpawnGovernor {
+
+    // minimum time between removing dead entities from tracking
+    private static final long PRUNE_INTERVAL_NANOS = 50000000L;
+
+    private final IArena _arena;
+    private final Map<EntityType, List<Entity>> _entities = new EnumMap<>(EntityType.class);
+    private int _total;
+    private long _lastPrune;
+
+    /**
+     * Constructor.
+     *
+     * @param arena  The arena to govern.
+     */
+    public SpawnGovernor(IArena arena) {
+        PreCon.notNull(arena);
+
+        _arena = arena;
+        _arena.getEventManager().register(new GameEndListener());
+    }
+
+    /**
+     * Get the governed arena.
+     */
+    public IArena getArena() {
+        return _arena;
+    }
+
+    /**
+     * Get the total number of live tracked entities.
+     */
+    public int getTotal() {
+        prune(false);
+        return _total;
+    }
+
+    /**
+     * Get the number of live tracked entities of the specified type.
+     *
+     * @param type  The entity type.
+     */
+    public int getCount(EntityType type) {
+        PreCon.notNull(type);
+
+        prune(false);
+
+        List<Entity> entities = _entities.get(type);
+        return entities != null ? entities.size() : 0;
+    }
+
+    /**
+     * Get the number of live tracked entities of each type.
+     *
+     * @return  A new map of entity counts.
+     */
+    public Map<EntityType, Integer> getCounts() {
+        prune(false);
+
+        Map<EntityType, Integer> counts = new EnumMap<>(EntityType.class);
+
+        for (Map.Entry<EntityType, List<Entity>> entry : _entities.entrySet()) {
+            if (!entry.getValue().isEmpty())
+                counts.put(entry.getKey(), entry.getValue().size());
+        }
+
+        return counts;
+    }
+
+    /**
+     * Get the number of entities of the specified type that can be
+     * spawned without exceeding a ceiling.
+     *
+     * @param type       The entity type.
+     * @param requested  The number of entities requested.
+     *
+     * @return  The number allowed, between 0 and the requested amount.
+     */
+    public int getAllowed(EntityType type, int requested) {
+        PreCon.notNull(type);
+        PreCon.positiveNumber(requested);
+
+        prune(false);
+
+        IArenaSettings settings = _arena.getSettings();
+
+        int allowed = limit(requested, settings.getMaxEntities(), _total);
+        return limit(allowed, settings.getMaxEntities(type), getCount(type));
+    }
+
+    /**
+     * Get the number of entities that can be spawned by a spawn type
+     * without exceeding a ceiling.
+     *
+     * <p>If the spawn type can spawn more than one entity type, the lowest
+     * allowance of its entity types is used.</p>
+     *
+     * @param spawnType  The spawn type.
+     * @param requested  The number of entities requested.
+     *
+     * @return  The number allowed, between 0 and the requested amount.
+     */
+    public int getAllowed(SpawnType spawnType, int requested) {
+        PreCon.notNull(spawnType);
+        PreCon.positiveNumber(requested);
+
+        prune(false);
+
+        int allowed = limit(requested, _arena.getSettings().getMaxEntities(), _total);
+
+        EntityType[] types = spawnType.getEntityTypes();
+        if (types == null)
+            return allowed;
+
+        for (EntityType type : types)
+            allowed = Math.min(allowed, getAllowed(type, allowed));
+
+        return allowed;
+    }
+
+    /**
+     * Determine if the arena is at or over any ceiling that prevents
+     * the spawn type from spawning.
+     *
+     * @param spawnType  The spawn type.
+     */
+    public boolean isOverBudget(SpawnType spawnType) {
+        return getAllowed(spawnType, 1) == 0;
+    }
+
+    /**
+     * Track a spawned entity.
+     *
+     * @param entity  The entity.
+     */
+    public void track(Entity entity) {
+        PreCon.notNull(entity);
+
+        List<Entity> entities = _entities.get(entity.getType());
+        if (entities == null) {
+            entities = new ArrayList<>(25);
+            _entities.put(entity.getType(), entities);
+        }
+
+        entities.add(entity);
+        _total++;
+    }
+
+    /**
+     * Track a collection of spawned entities.
+     *
+     * @param entities  The entities.
+     */
+    public void track(Collection<? extends Entity> entities) {
+        PreCon.notNull(entities);
+
+        for (Entity entity : entities)
+            track(entity);
+    }
+
+    /**
+     * Stop tracking all entities.
+     */
+    public void clear() {
+        _entities.clear();
+        _total = 0;
+    }
+
+    /**
+     * Remove dead and removed entities from tracking.
+     *
+     * @param force  True to prune even if recently pruned.
+     */
+    public void prune(boolean force) {
+
+        long now = System.nanoTime();
+        if (!force && now - _lastPrune < PRUNE_INTERVAL_NANOS)
+            return;
+
+        _lastPrune = now;
+
+        for (List<Entity> entities : _entities.values()) {
+
+            // swap remove invalid entities
+            for (int i = entities.size() - 1; i >= 0; i--) {
+                if (entities.get(i).isValid())
+                    continue;
+
+                int last = entities.size() - 1;
+                entities.set(i, entities.get(last));
+                entities.remove(last);
+                _total--;
+            }
+        }
+    }
+
+    private static int limit(int requested, int ceiling, int current) {
+        if (ceiling <= 0)
+            return requested;
+
+        return Math.max(0, Math.min(requested, ceiling - current));
+    }
+
+    private class GameEndListener implements IEventListener {
+
+        @Override
+        public Plugin getPlugin() {
+            return PVStarAPI.getPlugin();
+        }
+
+        @EventMethod
+        public void onArenaEnded(ArenaEndedEvent event) {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,567 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.ArenaTeam;
+import com.jcwhatever.pvs.api.spawns.SpawnType;
+import com.jcwhatever.pvs.api.spawns.Spawnpoint;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * A uniform grid spatial index of {@link Spawnpoint}'s, partitioned by world.
+ *
+ * <p>Spawnpoints are bucketed into square cells on the X/Z plane. Nearest, k-nearest
+ * and radius queries only visit the cells that can contain a result instead of
+ * scanning every spawnpoint.</p>
+ *
+ * <p>A spawnpoint whose coordinates are changed must be removed and re-added.</p>
+ *
+ * <p>Not thread safe. Intended to be used from the main thread.</p>
+ */
+public class SpawnpointIndex {
+
+    /**
+     * The default width of a grid cell in blocks.
+     */
+    public static final int DEFAULT_CELL_SIZE = 16;
+
+    private final int _cellSize;
+    private final Map<String, WorldGrid> _worlds = new HashMap<>(5);
+    private int _size;
+
+    /**
+     * Constructor.
+     *
+     * <p>Uses the {@link #DEFAULT_CELL_SIZE}.</p>
+     */
+    public SpawnpointIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cellSize  The width of a grid cell in blocks.
+     */
+    public SpawnpointIndex(int cellSize) {
+        PreCon.greaterThanZero(cellSize);
+
+        _cellSize = cellSize;
+    }
+
+    /**
+     * Get the width of a grid cell in blocks.
+     */
+    public int getCellSize() {
+        return _cellSize;
+    }
+
+    /**
+     * Get the number of indexed spawnpoints.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Add a spawnpoint to the index.
+     *
+     * @param spawn  The spawnpoint to add.
+     *
+     * @return  True if added, false if the spawn has no world or is already indexed.
+     */
+    public boolean add(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        World world = spawn.getWorld();
+        if (world == null)
+            return false;
+
+        WorldGrid grid = _worlds.get(world.getName());
+        if (grid == null) {
+            grid = new WorldGrid();
+            _worlds.put(world.getName(), grid);
+        }
+
+        if (!grid.add(spawn))
+            return false;
+
+        _size++;
+        return true;
+    }
+
+    /**
+     * Add a collection of spawnpoints to the index.
+     *
+     * @param spawns  The spawnpoints to add.
+     */
+    public void addAll(Collection<? extends Spawnpoint> spawns) {
+        PreCon.notNull(spawns);
+
+        for (Spawnpoint spawn : spawns)
+            add(spawn);
+    }
+
+    /**
+     * Remove a spawnpoint from the index.
+     *
+     * @param spawn  The spawnpoint to remove.
+     *
+     * @return  True if found and removed.
+     */
+    public boolean remove(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        World world = spawn.getWorld();
+        if (world == null)
+            return false;
+
+        WorldGrid grid = _worlds.get(world.getName());
+        if (grid == null || !grid.remove(spawn))
+            return false;
+
+        if (grid.cells.isEmpty())
+            _worlds.remove(world.getName());
+
+        _size--;
+        return true;
+    }
+
+    /**
+     * Remove all spawnpoints from the index.
+     */
+    public void clear() {
+        _worlds.clear();
+        _size = 0;
+    }
+
+    /**
+     * Get the spawnpoint nearest to a location.
+     *
+     * @param location  The location.
+     * @param type      Optional spawn type to filter by. Null for any type.
+     * @param team      Optional team to filter by. Null for any team.
+     *
+     * @return  The nearest spawnpoint or null if none found.
+     */
+    @Nullable
+    public Spawnpoint getNearest(Location location,
+                                 @Nullable SpawnType type, @Nullable ArenaTeam team) {
+        PreCon.notNull(location);
+
+        WorldGrid grid = getGrid(location);
+        if (grid == null)
+            return null;
+
+        int cx = toCell(location.getX());
+        int cz = toCell(location.getZ());
+        int minRing = grid.minRing(cx, cz);
+        int maxRing = grid.maxRing(cx, cz);
+
+        Spawnpoint nearest = null;
+        double nearestDist = Double.MAX_VALUE;
+
+        // walking the rings would visit more cells than there are spawns
+        if (grid.isSparse(minRing, maxRing)) {
+            for (List<Spawnpoint> cell : grid.cells.values()) {
+                for (int j = 0; j < cell.size(); j++) {
+                    Spawnpoint spawn = cell.get(j);
+
+                    if (!matches(spawn, type, team))
+                        continue;
+
+                    double dist = distanceSquared(location, spawn);
+                    if (dist < nearestDist) {
+                        nearest = spawn;
+                        nearestDist = dist;
+                    }
+                }
+            }
+            return nearest;
+        }
+
+        // rings inside minRing do not reach an occupied cell
+        for (int ring = minRing; ring <= maxRing; ring++) {
+
+            if (nearest != null && minRingDistanceSquared(ring) > nearestDist)
+                break;
+
+            int total = ring == 0 ? 1 : ring * 8;
+
+            for (int i = 0; i < total; i++) {
+
+                List<Spawnpoint> cell = grid.cells.get(ringCellKey(cx, cz, ring, i));
+                if (cell == null)
+                    continue;
+
+                for (int j = 0; j < cell.size(); j++) {
+                    Spawnpoint spawn = cell.get(j);
+
+                    if (!matches(spawn, type, team))
+                        continue;
+
+                    double dist = distanceSquared(location, spawn);
+                    if (dist < nearestDist) {
+                        nearest = spawn;
+                        nearestDist = dist;
+                    }
+                }
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Add the spawnpoints nearest to a location into an output collection,
+     * ordered nearest first.
+     *
+     * @param location  The location.
+     * @param count     The max number of spawnpoints to add.
+     * @param type      Optional spawn type to filter by. Null for any type.
+     * @param team      Optional team to filter by. Null for any team.
+     * @param output    The output collection.
+     *
+     * @return  The output collection.
+     */
+    public <T extends Collection<? super Spawnpoint>> T getNearest(
+            Location location, int count,
+            @Nullable SpawnType type, @Nullable ArenaTeam team, T output) {
+
+        PreCon.notNull(location);
+        PreCon.greaterThanZero(count);
+        PreCon.notNull(output);
+
+        WorldGrid grid = getGrid(location);
+        if (grid == null)
+            return output;
+
+        int cx = toCell(location.getX());
+        int cz = toCell(location.getZ());
+        int minRing = grid.minRing(cx, cz);
+        int maxRing = grid.maxRing(cx, cz);
+
+        // sorted nearest first
+        Spawnpoint[] nearest = new Spawnpoint[count];
+        double[] distances = new double[count];
+        int found = 0;
+
+        if (grid.isSparse(minRing, maxRing)) {
+            for (List<Spawnpoint> cell : grid.cells.values())
+                found = insertNearest(location, cell, type, team, nearest, distances, found);
+        }
+        else {
+            for (int ring = minRing; ring <= maxRing; ring++) {
+
+                if (found == count && minRingDistanceSquared(ring) > distances[count - 1])
+                    break;
+
+                int total = ring == 0 ? 1 : ring * 8;
+
+                for (int i = 0; i < total; i++) {
+
+                    List<Spawnpoint> cell = grid.cells.get(ringCellKey(cx, cz, ring, i));
+                    if (cell != null)
+                        found = insertNearest(location, cell, type, team, nearest, distances, found);
+                }
+            }
+        }
+
+        for (int i = 0; i < found; i++)
+            output.add(nearest[i]);
+
+        return output;
+    }
+
+    /**
+     * Add the spawnpoints within a radius of a location into an output collection.
+     *
+     * @param location  The center location.
+     * @param radius    The radius.
+     * @param type      Optional spawn type to filter by. Null for any type.
+     * @param team      Optional team to filter by. Null for any team.
+     * @param output    The output collection.
+     *
+     * @return  The output collection.
+     */
+    public <T extends Collection<? super Spawnpoint>> T getInRadius(
+            Location location, double radius,
+            @Nullable SpawnType type, @Nullable ArenaTeam team, T output) {
+
+        PreCon.notNull(location);
+        PreCon.positiveNumber(radius);
+        PreCon.notNull(output);
+
+        WorldGrid grid = getGrid(location);
+        if (grid == null)
+            return output;
+
+        int startX = Math.max(toCell(location.getX() - radius), grid.minX);
+        int endX = Math.min(toCell(location.getX() + radius), grid.maxX);
+        int startZ = Math.max(toCell(location.getZ() - radius), grid.minZ);
+        int endZ = Math.min(toCell(location.getZ() + radius), grid.maxZ);
+
+        double radiusSquared = radius * radius;
+
+        for (int x = startX; x <= endX; x++) {
+            for (int z = startZ; z <= endZ; z++) {
+
+                List<Spawnpoint> cell = grid.cells.get(cellKey(x, z));
+                if (cell == null)
+                    continue;
+
+                for (int j = 0; j < cell.size(); j++) {
+                    Spawnpoint spawn = cell.get(j);
+
+                    if (matches(spawn, type, team) &&
+                            distanceSquared(location, spawn) <= radiusSquared) {
+                        output.add(spawn);
+                    }
+                }
+            }
+        }
+
+        return output;
+    }
+
+    @Nullable
+    private WorldGrid getGrid(Location location) {
+        World world = location.getWorld();
+        if (world == null)
+            return null;
+
+        return _worlds.get(world.getName());
+    }
+
+    private int toCell(double coord) {
+        return (int) Math.floor(coord / _cellSize);
+    }
+
+    /*
+     * Get the smallest possible squared distance between a point and
+     * any point inside a cell in the specified ring around the points cell.
+     */
+    private double minRingDistanceSquared(int ring) {
+        if (ring <= 1)
+            return 0;
+
+        double dist = (ring - 1) * (double) _cellSize;
+        return dist * dist;
+    }
+
+    /*
+     * Insert the matching spawnpoints of a cell into the sorted nearest results.
+     * Returns the new number of results.
+     */
+    private static int insertNearest(Location location, List<Spawnpoint> cell,
+                                     @Nullable SpawnType type, @Nullable ArenaTeam team,
+                                     Spawnpoint[] nearest, double[] distances, int found) {
+
+        int count = nearest.length;
+
+        for (int j = 0; j < cell.size(); j++) {
+            Spawnpoint spawn = cell.get(j);
+
+            if (!matches(spawn, type, team))
+                continue;
+
+            double dist = distanceSquared(location, spawn);
+            if (found == count && dist >= distances[count - 1])
+                continue;
+
+            // insertion sort into results
+            int index = found == count ? count - 1 : found++;
+            while (index > 0 && distances[index - 1] > dist) {
+                nearest[index] = nearest[index - 1];
+                distances[index] = distances[index - 1];
+                index--;
+            }
+            nearest[index] = spawn;
+            distances[index] = dist;
+        }
+
+        return found;
+    }
+
+    private static boolean matches(Spawnpoint spawn,
+                                   @Nullable SpawnType type, @Nullable ArenaTeam team) {
+        return (type == null || type.equals(spawn.getSpawnType())) &&
+                (team == null || team == spawn.getTeam());
+    }
+
+    private static double distanceSquared(Location location, Spawnpoint spawn) {
+        double dx = location.getX() - spawn.getX();
+        double dy = location.getY() - spawn.getY();
+        double dz = location.getZ() - spawn.getZ();
+
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /*
+     * Spawnpoints at the same location are equal, compare instances.
+     */
+    private static int indexOfSame(List<Spawnpoint> spawns, Spawnpoint spawn) {
+        for (int i = 0; i < spawns.size(); i++) {
+            if (spawns.get(i) == spawn)
+                return i;
+        }
+        return -1;
+    }
+
+    private static long cellKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /*
+     * Get the key of the cell at the specified index of the ring of cells
+     * surrounding a center cell. A ring greater than 0 has 8 * ring cells.
+     */
+    private static long ringCellKey(int cx, int cz, int ring, int index) {
+
+        if (ring == 0)
+            return cellKey(cx, cz);
+
+        int side = index / (ring * 2);
+        int offset = index % (ring * 2);
+
+        switch (side) {
+            case 0:
+                return cellKey(cx - ring + offset, cz - ring);
+            case 1:
+                return cellKey(cx + ring, cz - ring + offset);
+            case 2:
+                return cellKey(cx + ring - offset, cz + ring);
+            default:
+                return cellKey(cx - ring, cz + ring - offset);
+        }
+    }
+
+    private class WorldGrid {
+
+        final Map<Long, List<Spawnpoint>> cells = new HashMap<>(35);
+        int size;
+
+        // bounds of the cells that have been occupied
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+
+        boolean add(Spawnpoint spawn) {
+
+            int x = toCell(spawn.getX());
+            int z = toCell(spawn.getZ());
+            long key = cellKey(x, z);
+
+            List<Spawnpoint> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<>(5);
+                cells.put(key, cell);
+            }
+            else if (indexOfSame(cell, spawn) != -1) {
+                return false;
+            }
+
+            cell.add(spawn);
+            size++;
+
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minZ = Math.min(minZ, z);
+            maxZ = Math.max(maxZ, z);
+
+            return true;
+        }
+
+        boolean remove(Spawnpoint spawn) {
+
+            long key = cellKey(toCell(spawn.getX()), toCell(spawn.getZ()));
+
+            List<Spawnpoint> cell = cells.get(key);
+            if (cell == null)
+                return false;
+
+            int index = indexOfSame(cell, spawn);
+            if (index == -1)
+                return false;
+
+            cell.remove(index);
+
+            size--;
+
+            // bounds are not shrunk, they are only used to limit searches
+            if (cell.isEmpty())
+                cells.remove(key);
+
+            return true;
+        }
+
+        /*
+         * Get the first ring around a cell that can contain an occupied cell.
+         */
+        int minRing(int cx, int cz) {
+            if (cells.isEmpty())
+                return 0;
+
+            int dx = cx < minX ? minX - cx : cx > maxX ? cx - maxX : 0;
+            int dz = cz < minZ ? minZ - cz : cz > maxZ ? cz - maxZ : 0;
+
+            return Math.max(dx, dz);
+        }
+
+        /*
+         * Determine if walking the rings from minRing to maxRing visits
+         * more cells than there are spawnpoints in the grid.
+         */
+        boolean isSparse(int minRing, int maxRing) {
+            long outer = 2L * maxRing + 1;
+            long inner = minRing > 0 ? 2L * minRing - 1 : 0;
+
+            return outer * outer - inner * inner > size;
+        }
+
+        /*
+         * Get the number of rings around a cell needed to cover all occupied cells.
+         */
+        int maxRing(int cx, int cz) {
+            if (cells.isEmpty())
+                return -1;
+
+            return Math.max(
+                    Math.max(Math.abs(cx - minX), Math.abs(cx - maxX)),
+                    Math.max(Math.abs(cz - minZ), Math.abs(cz - maxZ)));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * This file is part of PV-StarAPI for Bukkit, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) JCThePants (www.jcwhatever.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.jcwhatever.pvs.api.utils;
+
+import com.jcwhatever.nucleus.utils.PreCon;
+import com.jcwhatever.pvs.api.arena.ArenaRegion;
+import com.jcwhatever.pvs.api.spawns.Spawnpoint;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The chunk aligned offset of an arena instance from its template arena.
+ *
+ * <p>Offsets are whole chunks so the instance region shares chunk data
+ * with the template in a {@link com.jcwhatever.pvs.api.arena.region.ChunkStore}.</p>
+ */
+public final class TemplateOffset {
+
+    /**
+     * Get the offset of an instance slot.
+     *
+     * <p>Instances are placed in a row along the X axis after the template
+     * region, separated by the specified number of empty chunks.</p>
+     *
+     * @param region     The template region.
+     * @param world      The world the instance is placed in.
+     * @param slot       The instance slot index.
+     * @param gapChunks  The number of empty chunks between instances.
+     *
+     * @throws IllegalStateException if the template region is not defined.
+     */
+    public static TemplateOffset forSlot(ArenaRegion region, World world, int slot, int gapChunks) {
+        PreCon.notNull(region);
+        PreCon.notNull(world);
+        PreCon.positiveNumber(slot);
+        PreCon.positiveNumber(gapChunks);
+
+        if (!region.isDefined())
+            throw new IllegalStateException("Template region is not defined.");
+
+        int widthChunks = (region.getXEnd() >> 4) - (region.getXStart() >> 4) + 1;
+
+        return new TemplateOffset(world, (slot + 1) * (widthChunks + gapChunks), 0);
+    }
+
+    private final World _world;
+    private final int _chunkX;
+    private final int _chunkZ;
+
+    /**
+     * Constructor.
+     *
+     * @param world   The world the instance is placed in.
+     * @param chunkX  The X axis offset in chunks.
+     * @param chunkZ  The Z axis offset in chunks.
+     */
+    public TemplateOffset(World world, int chunkX, int chunkZ) {
+        PreCon.notNull(world);
+
+        _world = world;
+        _chunkX = chunkX;
+        _chunkZ = chunkZ;
+    }
+
+    /**
+     * Get the world the instance is placed in.
+     */
+    public World getWorld() {
+        return _world;
+    }
+
+    /**
+     * Get the X axis offset in chunks.
+     */
+    public int getChunkX() {
+        return _chunkX;
+    }
+
+    /**
+     * Get the Z axis offset in chunks.
+     */
+    public int getChunkZ() {
+        return _chunkZ;
+    }
+
+    /**
+     * Get the X axis offset in blocks.
+     */
+    public int getBlockX() {
+        return _chunkX << 4;
+    }
+
+    /**
+     * Get the Z axis offset in blocks.
+     */
+    public int getBlockZ() {
+        return _chunkZ << 4;
+    }
+
+    /**
+     * Translate a template location to the instance.
+     *
+     * @param location  The template location.
+     * @param output    The location to put the result into.
+     *
+     * @return  The output location.
+     */
+    public Location translate(Location location, Location output) {
+        PreCon.notNull(location);
+        PreCon.notNull(output);
+
+        output.setWorld(_world);
+        output.setX(location.getX() + getBlockX());
+        output.setY(location.getY());
+        output.setZ(location.getZ() + getBlockZ());
+        output.setYaw(location.getYaw());
+        output.setPitch(location.getPitch());
+
+        return output;
+    }
+
+    /**
+     * Create a copy of a template spawnpoint translated to the instance.
+     *
+     * @param spawn  The template spawnpoint.
+     */
+    public Spawnpoint translate(Spawnpoint spawn) {
+        PreCon.notNull(spawn);
+
+        Spawnpoint result = new Spawnpoint(spawn.getName(), spawn.getSpawnType(), spawn.getTeam(),
+                _world, spawn.getX() + getBlockX(), spawn.getY(), spawn.getZ() + getBlockZ(),
+                spawn.getYaw(), spawn.getPitch());
+
+        result.setWeight(spawn.getWeight());
+
+        return result;
+    }
+
+    /**
+     * Create copies of template spawnpoints translated to the instance.
+     *
+     * @param spawns  The template spawnpoints.
+     */
+    public List<Spawnpoint> translate(Collection<? extends Spawnpoint> spawns) {
+        PreCon.notNull(spawns);
+
+        List<Spawnpoint> result = new ArrayList<>(spawns.size());
+
+        for (Spawnpoint spawn : spawns)
+            result.add(translate(spawn));
+
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        return _world.hashCode() ^ (_chunkX * 31 + _chunkZ);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof TemplateOffset))
+            return false;
+
+        TemplateOffset other = (TemplateOffset) obj;
+
+        return other._world.equals(_world) &&
+                other._chunkX == _chunkX &&
+                other._chunkZ == _chunkZ;
+    }
+}